@@ -11,6 +11,7 @@ const api = axios.create({
     'Content-Type': 'application/json',
   },
   timeout: 10000, // 10 second timeout
+  withCredentials: true, // sends the replica_client cookie when the API is on another origin (dev)
 });
 
 // Add response interceptor for debugging
@@ -45,7 +46,13 @@ export const sendOTP = (email) => api.post('/users/send-otp', { email });
 export const forgotPassword = (email, otp, newPassword) => api.post('/users/forgot-password', { email, otp, newPassword });
 
 // Product APIs
+// URL of a downscaled copy of the product photo ('thumb', 'card' or 'detail'), or the original until it exists
+export const productPhoto = (product, size) => product?.photoUrls?.[size] || product?.photoUrl;
 export const getAllProducts = () => api.get('/products/all');
+// Paged product cards: { category, minPrice, maxPrice, activeOnly, seller, sort, cursor, size } -> { items, nextCursor }
+export const getCatalog = (params) => api.get('/products/catalog', { params });
+// Ranked full-text search: { q, category, activeOnly, size } -> [product card]
+export const searchProducts = (params) => api.get('/products/search', { params });
 export const getProductsBySeller = (email) => api.get(`/products/seller/${email}`);
 export const getProductById = (id) => api.get(`/products/${id}`);
 export const addProduct = (formData) => {
@@ -61,8 +68,13 @@ export const deleteProduct = (id) => api.delete(`/products/delete/${id}`);
 
 // Bid APIs
 export const placeBid = (bidData) => api.post('/bid/place', bidData);
+export const placeProxyBid = (proxyData) => api.post('/bid/proxy', proxyData);
 export const getBidsForProduct = (productId) => api.get(`/bid/getbids?productId=${productId}`);
 export const getHighestBid = (productId) => api.get(`/bid/highest?productId=${productId}`);
+export const getBidHistory = (productId, cursor) =>
+  api.get(`/bid/history?productId=${productId}${cursor ? `&cursor=${encodeURIComponent(cursor)}` : ''}`);
+export const getMyBids = (email, page = 0, size = 20) =>
+  api.get(`/bid/mine?email=${encodeURIComponent(email)}&page=${page}&size=${size}`);
 
 // Order APIs
 export const placeOrder = (orderData) => api.post('/orders/place', orderData);
@@ -100,7 +112,8 @@ export const getDeliveryById = (id) => api.get(`/delivery/${id}`);
 export const updateDeliveryStatus = (id, status) => api.post(`/delivery/updatestatus?id=${id}&status=${status}`);
 
 // Notification APIs
-export const getUserNotifications = (email) => api.get(`/notifications/user?email=${email}`);
+export const getUserNotifications = (email, cursor, size) =>
+  api.get('/notifications/user', { params: { email, cursor, size } });
 export const getUnreadNotifications = (email) => api.get(`/notifications/unread?email=${email}`);
 export const getUnreadCount = (email) => api.get(`/notifications/unread-count?email=${email}`);
 export const markNotificationRead = (id) => api.post(`/notifications/mark-read?id=${id}`);
@@ -16,7 +16,7 @@ import CheckCircleIcon from '@mui/icons-material/CheckCircle';
 import GavelIcon from '@mui/icons-material/Gavel';
 import TrendingUpIcon from '@mui/icons-material/TrendingUp';
 import { useNavigate } from 'react-router-dom';
-import { getUserNotifications, markNotificationRead, markAllNotificationsRead } from '../api';
+import { getUserNotifications, getUnreadCount, markNotificationRead, markAllNotificationsRead } from '../api';
 
 const NotificationBell = () => {
   const [anchorEl, setAnchorEl] = useState(null);
@@ -39,10 +39,12 @@ const NotificationBell = () => {
     if (!email) return;
     
     try {
-      const response = await getUserNotifications(email);
-      const notifs = response.data || [];
-      setNotifications(notifs);
-      setUnreadCount(notifs.filter(n => !n.read).length);
+      const [response, countResponse] = await Promise.all([
+        getUserNotifications(email),
+        getUnreadCount(email),
+      ]);
+      setNotifications(response.data?.items || []);
+      setUnreadCount(countResponse.data?.count ?? 0);
     } catch (error) {
       console.error('Error fetching notifications:', error);
     }
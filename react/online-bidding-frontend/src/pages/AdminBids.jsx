@@ -11,7 +11,7 @@ import {
   Divider,
 } from '@mui/material';
 import AdminNavbar from '../components/AdminNavbar';
-import { getAllProducts, getBidsForProduct, getHighestBid } from '../api';
+import { getAllProducts, getBidsForProduct, getHighestBid, productPhoto } from '../api';
 
 const API_BASE = import.meta.env?.VITE_API_URL || '';
 
@@ -62,7 +62,7 @@ const AdminBids = () => {
                 <CardMedia
                   component="img"
                   height="250"
-                  image={product.photoUrl ? `${API_BASE}${product.photoUrl}` : 'https://via.placeholder.com/300x250'}
+                  image={product.photoUrl ? `${API_BASE}${productPhoto(product, 'card')}` : 'https://via.placeholder.com/300x250'}
                   alt={product.name}
                   sx={{ objectFit: 'cover' }}
                 />
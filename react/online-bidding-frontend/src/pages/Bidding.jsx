@@ -14,9 +14,11 @@ import {
   ListItem,
   ListItemText,
   Divider,
+  FormControlLabel,
+  Checkbox,
 } from '@mui/material';
 import Navbar from '../components/Navbar';
-import { getHighestBid, getBidsForProduct, placeBid, getProductById } from '../api';
+import { getHighestBid, getBidHistory, placeBid, placeProxyBid, getProductById, productPhoto } from '../api';
 
 const API_BASE = import.meta.env?.VITE_API_URL || '';
 
@@ -25,15 +27,29 @@ const Bidding = () => {
   const navigate = useNavigate();
   const [product, setProduct] = useState(null);
   const [bids, setBids] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
+  const [closed, setClosed] = useState(false);
   const [highestBid, setHighestBid] = useState(0);
   const [bidAmount, setBidAmount] = useState('');
+  const [autoBid, setAutoBid] = useState(false);
   const [error, setError] = useState('');
   const [success, setSuccess] = useState('');
 
   useEffect(() => {
     fetchProductAndBidData();
-    const interval = setInterval(fetchProductAndBidData, 5000); // Refresh every 5 seconds
-    return () => clearInterval(interval);
+
+    // Live updates are pushed by the server instead of polling every few seconds
+    const stream = new EventSource(`${API_BASE}/bid/stream?productId=${productId}`);
+    stream.addEventListener('highest', (event) => {
+      const bid = JSON.parse(event.data);
+      setHighestBid(bid.bidAmount || 0);
+    });
+    stream.addEventListener('bid', (event) => {
+      const bid = JSON.parse(event.data);
+      setBids((current) => (current.some((b) => b.id === bid.id) ? current : [bid, ...current]));
+    });
+    stream.addEventListener('closed', () => setClosed(true));
+    return () => stream.close();
   }, [productId]);
 
   const fetchProductAndBidData = async () => {
@@ -42,7 +58,7 @@ const Bidding = () => {
       const [productResponse, highestBidResponse, bidsResponse] = await Promise.all([
         getProductById(productId),
         getHighestBid(productId),
-        getBidsForProduct(productId),
+        getBidHistory(productId),
       ]);
       
       console.log('Product Response:', productResponse);
@@ -51,12 +67,16 @@ const Bidding = () => {
 
       if (productResponse.data) {
         setProduct(productResponse.data);
+        // Auctions run through the whole expiry date
+        const { expiryDate } = productResponse.data;
+        setClosed(Boolean(expiryDate) && new Date(`${expiryDate}T23:59:59.999`) < new Date());
       }
       if (highestBidResponse.data) {
         setHighestBid(highestBidResponse.data.bidAmount || 0);
       }
       if (bidsResponse.data) {
-        setBids(bidsResponse.data);
+        setBids(bidsResponse.data.items);
+        setNextCursor(bidsResponse.data.nextCursor);
       }
     } catch (error) {
       console.error('Error fetching data:', error);
@@ -64,6 +84,16 @@ const Bidding = () => {
     }
   };
 
+  const loadOlderBids = async () => {
+    try {
+      const response = await getBidHistory(productId, nextCursor);
+      setBids((current) => [...current, ...response.data.items]);
+      setNextCursor(response.data.nextCursor);
+    } catch (error) {
+      console.error('Error fetching older bids:', error);
+    }
+  };
+
   const handleBidSubmit = async (e) => {
     e.preventDefault();
     setError('');
@@ -85,19 +115,27 @@ const Bidding = () => {
       console.log('Placing bid:', {
         productId: parseInt(productId),
         buyerEmail: email,
-        bidAmount: amount
+        bidAmount: amount,
+        autoBid
       });
 
-      const response = await placeBid({
-        productId: parseInt(productId),
-        buyerEmail: email,
-        bidAmount: amount
-      });
+      // An automatic bid is a maximum: the server bids for us only as far as needed
+      const response = autoBid
+        ? await placeProxyBid({
+            productId: parseInt(productId),
+            buyerEmail: email,
+            maxAmount: amount
+          })
+        : await placeBid({
+            productId: parseInt(productId),
+            buyerEmail: email,
+            bidAmount: amount
+          });
 
       console.log('Bid response:', response);
 
-      if (response.data && response.data.includes('200::')) {
-        setSuccess('Bid placed successfully!');
+      if (response.data && (response.data.startsWith('200::') || response.data.startsWith('202::'))) {
+        setSuccess(response.data.split('::')[1] || 'Bid placed successfully!');
         setBidAmount('');
         fetchProductAndBidData();
       } else {
@@ -146,7 +184,7 @@ const Bidding = () => {
               <CardMedia
                 component="img"
                 height="400"
-                image={product.photoUrl ? `${API_BASE}${product.photoUrl}` : 'https://via.placeholder.com/400'}
+                image={product.photoUrl ? `${API_BASE}${productPhoto(product, 'detail')}` : 'https://via.placeholder.com/400'}
                 alt={product.name}
               />
               <CardContent>
@@ -160,21 +198,33 @@ const Bidding = () => {
                   Current Highest Bid: ${highestBid.toFixed(2)}
                 </Typography>
 
+                {closed && (
+                  <Alert severity="info" sx={{ mb: 2 }}>
+                    This auction has ended.
+                  </Alert>
+                )}
+
                 <form onSubmit={handleBidSubmit}>
                   <TextField
                     fullWidth
-                    label="Your Bid Amount"
+                    label={autoBid ? 'Your Maximum Bid' : 'Your Bid Amount'}
                     type="number"
                     value={bidAmount}
                     onChange={(e) => setBidAmount(e.target.value)}
-                    sx={{ mb: 2 }}
+                    sx={{ mb: 1 }}
                     inputProps={{ step: "0.01", min: (highestBid || 0) + 0.01 }}
                   />
+                  <FormControlLabel
+                    control={<Checkbox checked={autoBid} onChange={(e) => setAutoBid(e.target.checked)} />}
+                    label="Bid automatically up to this amount"
+                    sx={{ mb: 1 }}
+                  />
                   <Button
                     type="submit"
                     variant="contained"
                     color="primary"
                     fullWidth
+                    disabled={closed}
                   >
                     Place Bid
                   </Button>
@@ -194,8 +244,8 @@ const Bidding = () => {
                     <div key={bid.id}>
                       <ListItem>
                         <ListItemText
-                          primary={`$${bid.bidAmount.toFixed(2)}`}
-                          secondary={`${bid.buyerEmail} - ${new Date(bid.bidTime).toLocaleString()}`}
+                          primary={`$${bid.amount.toFixed(2)}`}
+                          secondary={`${bid.bidder} - ${new Date(bid.bidTime).toLocaleString()}`}
                         />
                       </ListItem>
                       {index < bids.length - 1 && <Divider />}
@@ -207,6 +257,11 @@ const Bidding = () => {
                     </ListItem>
                   )}
                 </List>
+                {nextCursor && (
+                  <Button fullWidth onClick={loadOlderBids}>
+                    Load older bids
+                  </Button>
+                )}
               </CardContent>
             </Card>
           </Grid>
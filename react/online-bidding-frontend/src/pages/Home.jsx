@@ -2,7 +2,7 @@ import { useState, useEffect } from 'react';
 import { Container, Typography, Button, Box, Grid, Card, CardContent, CardMedia, Chip, Paper } from '@mui/material';
 import { Link, useNavigate } from 'react-router-dom';
 import Navbar from '../components/Navbar';
-import { getAllProducts } from '../api';
+import { getAllProducts, productPhoto } from '../api';
 import '../CSS/home.css';
 import SecurityIcon from '@mui/icons-material/Security';
 import CategoryIcon from '@mui/icons-material/Category';
@@ -208,7 +208,7 @@ const Home = () => {
                   <CardMedia
                     component="img"
                     height="250"
-                    image={product.photoUrl ? `${API_BASE}${product.photoUrl}` : 'https://via.placeholder.com/200'}
+                    image={product.photoUrl ? `${API_BASE}${productPhoto(product, 'card')}` : 'https://via.placeholder.com/200'}
                     alt={product.name}
                     sx={{ 
                       objectFit: 'cover',
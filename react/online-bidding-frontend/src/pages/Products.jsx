@@ -20,7 +20,7 @@ import {
 } from '@mui/material';
 import { useNavigate, useSearchParams } from 'react-router-dom';
 import AdminNavbar from '../components/AdminNavbar';
-import { getAllProducts, getAllCategories, updateProduct, deleteProduct, getBidsForProduct, addProduct } from '../api';
+import { getAllProducts, getAllCategories, updateProduct, deleteProduct, getBidsForProduct, addProduct, productPhoto } from '../api';
 import GavelIcon from '@mui/icons-material/Gavel';
 import EditIcon from '@mui/icons-material/Edit';
 import DeleteIcon from '@mui/icons-material/Delete';
@@ -332,7 +332,7 @@ const Products = () => {
                 <CardMedia
                   component="img"
                   height="200"
-                  image={product.photoUrl ? `${API_BASE}${product.photoUrl}` : 'https://via.placeholder.com/300x200'}
+                  image={product.photoUrl ? `${API_BASE}${productPhoto(product, 'card')}` : 'https://via.placeholder.com/300x200'}
                   alt={product.name}
                 />
                 <CardContent>
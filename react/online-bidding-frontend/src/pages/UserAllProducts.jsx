@@ -18,7 +18,7 @@ import {
 } from '@mui/material';
 import { useNavigate } from 'react-router-dom';
 import UserNavbar from '../components/UserNavbar';
-import { getAllProducts, getAllCategories, placeBid, getHighestBid } from '../api';
+import { getCatalog, searchProducts, getAllCategories, placeBid, getHighestBid, productPhoto } from '../api';
 import GavelIcon from '@mui/icons-material/Gavel';
 
 const API_BASE = import.meta.env?.VITE_API_URL || '';
@@ -26,6 +26,7 @@ const MIN_BID_INCREMENT = 1.00; // Minimum bid increment in dollars
 
 const UserAllProducts = () => {
   const [products, setProducts] = useState([]);
+  const [nextCursor, setNextCursor] = useState(null);
   const [categories, setCategories] = useState([]);
   const [selectedCategory, setSelectedCategory] = useState('');
   const [searchQuery, setSearchQuery] = useState('');
@@ -41,14 +42,29 @@ const UserAllProducts = () => {
   const email = localStorage.getItem('email');
 
   useEffect(() => {
-    fetchProducts();
     fetchCategories();
   }, []);
 
-  const fetchProducts = async () => {
+  // Searches wait for a pause in typing
+  useEffect(() => {
+    const timer = setTimeout(() => fetchProducts(), searchQuery.trim() ? 250 : 0);
+    return () => clearTimeout(timer);
+  }, [selectedCategory, searchQuery]);
+
+  // Without a cursor the first page replaces the list, with one the next page is appended
+  const fetchProducts = async (cursor) => {
     try {
-      const response = await getAllProducts();
-      setProducts(response.data);
+      const category = selectedCategory || undefined;
+      if (searchQuery.trim()) {
+        const response = await searchProducts({ q: searchQuery.trim(), category });
+        setProducts(response.data || []);
+        setNextCursor(null);
+        return;
+      }
+      const response = await getCatalog({ category, cursor });
+      const items = response.data?.items || [];
+      setProducts((prev) => (cursor ? [...prev, ...items] : items));
+      setNextCursor(response.data?.nextCursor || null);
     } catch (error) {
       setError('Failed to fetch products');
     }
@@ -74,14 +90,6 @@ const UserAllProducts = () => {
     }
   };
 
-  const filteredProducts = products.filter((product) => {
-    const matchesCategory = !selectedCategory || product.category === selectedCategory;
-    const matchesSearch = !searchQuery || 
-      product.name.toLowerCase().includes(searchQuery.toLowerCase()) ||
-      product.description.toLowerCase().includes(searchQuery.toLowerCase());
-    return matchesCategory && matchesSearch;
-  });
-
   const handleOpenBidModal = async (product) => {
     setSelectedProduct(product);
     setBidAmount('');
@@ -130,8 +138,8 @@ const UserAllProducts = () => {
         bidAmount: bidValue,
       };
       const response = await placeBid(bidData);
-      if (response.data.startsWith('200::')) {
-        setBidSuccess('Bid placed successfully!');
+      if (response.data.startsWith('200::') || response.data.startsWith('202::')) {
+        setBidSuccess(response.data.startsWith('202::') ? response.data.split('::')[1] : 'Bid placed successfully!');
         fetchProducts();
         fetchHighestBid(selectedProduct.id);
       } else {
@@ -178,13 +186,13 @@ const UserAllProducts = () => {
           </Grid>
         </Grid>
         <Grid container spacing={3}>
-          {filteredProducts.map((product) => (
+          {products.map((product) => (
             <Grid item key={product.id} xs={12} sm={6} md={4}>
               <Card sx={{ height: '100%', display: 'flex', flexDirection: 'column' }}>
                 <CardMedia
                   component="img"
                   height="200"
-                  image={product.photoUrl ? `${API_BASE}${product.photoUrl}` : 'https://via.placeholder.com/200'}
+                  image={product.photoUrl ? `${API_BASE}${productPhoto(product, 'card')}` : 'https://via.placeholder.com/200'}
                   alt={product.name}
                   sx={{ objectFit: 'cover' }}
                 />
@@ -192,9 +200,6 @@ const UserAllProducts = () => {
                   <Typography gutterBottom variant="h6" component="div">
                     {product.name}
                   </Typography>
-                  <Typography variant="body2" color="text.secondary" sx={{ mb: 2 }}>
-                    {product.description}
-                  </Typography>
                   <Typography variant="h6" color="primary" sx={{ mb: 2 }}>
                     ${product.price.toFixed(2)}
                   </Typography>
@@ -218,7 +223,7 @@ const UserAllProducts = () => {
               </Card>
             </Grid>
           ))}
-          {filteredProducts.length === 0 && (
+          {products.length === 0 && (
             <Grid item xs={12}>
               <Typography variant="h6" textAlign="center">
                 No products found
@@ -226,6 +231,13 @@ const UserAllProducts = () => {
             </Grid>
           )}
         </Grid>
+        {nextCursor && (
+          <Box sx={{ display: 'flex', justifyContent: 'center', mt: 4 }}>
+            <Button variant="outlined" onClick={() => fetchProducts(nextCursor)}>
+              Load more
+            </Button>
+          </Box>
+        )}
         <Dialog open={bidModalOpen} onClose={handleCloseBidModal} maxWidth="xs" fullWidth>
           <DialogTitle>Place Bid</DialogTitle>
           <form onSubmit={handlePlaceBid}>
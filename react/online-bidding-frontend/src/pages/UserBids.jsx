@@ -13,7 +13,7 @@ import {
 } from '@mui/material';
 import UserNavbar from '../components/UserNavbar';
 import OrderModal from '../components/OrderModal';
-import { getBidsForProduct, getHighestBid, placeOrder, createDelivery } from '../api';
+import { getMyBids, placeOrder, createDelivery, productPhoto } from '../api';
 
 const API_BASE = import.meta.env?.VITE_API_URL || '';
 
@@ -25,6 +25,7 @@ const UserBids = () => {
   const [success, setSuccess] = useState('');
   const [orderModalOpen, setOrderModalOpen] = useState(false);
   const [selectedProduct, setSelectedProduct] = useState(null);
+  const [pageInfo, setPageInfo] = useState(null);
 
   const userEmail = localStorage.getItem('email');
 
@@ -32,44 +33,26 @@ const UserBids = () => {
     fetchUserBids();
   }, []);
 
-  const fetchUserBids = async () => {
+  const fetchUserBids = async (page = 0) => {
     try {
-      // Get all products first
-      const productsResponse = await fetch(`${API_BASE}/products/all`);
-      const products = await productsResponse.json();
-
-      // For each product, get bids and check if user has highest bid
-      const bidsPromises = products.map(product => getBidsForProduct(product.id));
-      const highestBidPromises = products.map(product => getHighestBid(product.id));
-      
-      const bidsResults = await Promise.all(bidsPromises);
-      const highestResults = await Promise.all(highestBidPromises);
-
-      // Filter bids made by the current user
-      const userBidsList = [];
+      // One server-side call returns the user's best bid per product and the current leader
+      const response = await getMyBids(userEmail, page);
+      const { page: pageInfo } = response.data;
+      const content = response.data.content.filter((item) => item.product); // skip deleted products
+
+      const userBidsList = content.map((item) => ({
+        id: item.product.id,
+        bidAmount: item.bidAmount,
+        product: item.product,
+      }));
       const highestBidsMap = {};
-
-      products.forEach((product, index) => {
-        const productBids = bidsResults[index].data;
-        const highestBid = highestResults[index].data;
-        
-        // Store highest bid for each product
-        highestBidsMap[product.id] = highestBid;
-
-        // Find all bids by the current user for this product
-        const userBidsForProduct = productBids.filter(bid => bid.buyerEmail === userEmail);
-        // Find the highest bid by the user for this product
-        if (userBidsForProduct.length > 0) {
-          const userHighestBid = userBidsForProduct.reduce((max, bid) => bid.bidAmount > max.bidAmount ? bid : max, userBidsForProduct[0]);
-          userBidsList.push({
-            ...userHighestBid,
-            product: product
-          });
-        }
+      content.forEach((item) => {
+        highestBidsMap[item.product.id] = item.highestBid;
       });
 
-      setUserBids(userBidsList);
-      setHighestBids(highestBidsMap);
+      setUserBids((current) => (page === 0 ? userBidsList : [...current, ...userBidsList]));
+      setHighestBids((current) => (page === 0 ? highestBidsMap : { ...current, ...highestBidsMap }));
+      setPageInfo(pageInfo);
     } catch (err) {
       setError('Failed to fetch bids');
     }
@@ -163,7 +146,7 @@ const UserBids = () => {
                 <CardMedia
                   component="img"
                   height="200"
-                  image={bid.product.photoUrl ? `${API_BASE}${bid.product.photoUrl}` : 'https://via.placeholder.com/300x200'}
+                  image={bid.product.photoUrl ? `${API_BASE}${productPhoto(bid.product, 'card')}` : 'https://via.placeholder.com/300x200'}
                   alt={bid.product.name}
                   sx={{ objectFit: 'cover' }}
                 />
@@ -197,6 +180,14 @@ const UserBids = () => {
           ))}
         </Grid>
 
+        {pageInfo && pageInfo.number + 1 < pageInfo.totalPages && (
+          <Box sx={{ display: 'flex', justifyContent: 'center', mt: 3 }}>
+            <Button variant="outlined" onClick={() => fetchUserBids(pageInfo.number + 1)}>
+              Load more
+            </Button>
+          </Box>
+        )}
+
         <OrderModal
           open={orderModalOpen}
           onClose={() => setOrderModalOpen(false)}
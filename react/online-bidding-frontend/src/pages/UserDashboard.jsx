@@ -17,7 +17,7 @@ import {
   TextField,
 } from '@mui/material';
 import UserNavbar from '../components/UserNavbar';
-import { getAllProducts, placeBid, getHighestBid } from '../api';
+import { getAllProducts, placeBid, getHighestBid, productPhoto } from '../api';
 import GavelIcon from '@mui/icons-material/Gavel';
 
 const API_BASE = import.meta.env?.VITE_API_URL || '';
@@ -109,8 +109,8 @@ const UserDashboard = () => {
         bidAmount: bidValue,
       };
       const response = await placeBid(bidData);
-      if (response.data.startsWith('200::')) {
-        setBidSuccess('Bid placed successfully!');
+      if (response.data.startsWith('200::') || response.data.startsWith('202::')) {
+        setBidSuccess(response.data.startsWith('202::') ? response.data.split('::')[1] : 'Bid placed successfully!');
         fetchProducts();
         fetchHighestBid(selectedProduct.id);
       } else {
@@ -152,7 +152,7 @@ const UserDashboard = () => {
                 <CardMedia
                   component="img"
                   height="200"
-                  image={product.photoUrl ? `${API_BASE}${product.photoUrl}` : 'https://via.placeholder.com/200'}
+                  image={product.photoUrl ? `${API_BASE}${productPhoto(product, 'card')}` : 'https://via.placeholder.com/200'}
                   alt={product.name}
                   sx={{ objectFit: 'cover' }}
                 />
@@ -0,0 +1,119 @@
+package klu.bench;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.springframework.boot.WebApplicationType;
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import klu.AuctionApplication;
+import klu.model.Bid;
+import klu.model.BidManager;
+import klu.model.NotificationManager;
+import klu.model.Product;
+import klu.model.ProductManager;
+import klu.model.WalletManager;
+import klu.repo.ProductRepository;
+
+// Boots the application once per benchmark on its own in-memory H2 database (MySQL mode)
+// with seeded products and funded buyers; nothing on these paths talks to SMTP.
+// The full context is deliberate: the measured paths include the bid group commit, Hibernate
+// batching, the caches in front of JPA and the catalog and notification queries, which stubbed
+// repositories would leave out. H2 ignores the MySQL-only rewriteBatchedStatements property.
+@State(Scope.Benchmark)
+public class AuctionState {
+
+    @Param("256")
+    public int products;
+
+    @Param("64")
+    public int buyers;
+
+    ConfigurableApplicationContext context;
+    BidManager bidManager;
+    ProductManager productManager;
+    NotificationManager notificationManager;
+
+    int[] productIds;
+    String[] buyerEmails;
+
+    // Next bid amount per product, so concurrent bidders keep raising the price
+    private AtomicLongArray nextAmounts;
+    private final AtomicInteger nextBuyer = new AtomicInteger();
+
+    @Setup(Level.Trial)
+    public void start() throws IOException {
+        // Passed as arguments so they override application.properties
+        context = new SpringApplicationBuilder(AuctionApplication.class)
+            .web(WebApplicationType.NONE)
+            .logStartupInfo(false)
+            .run(
+                "--spring.datasource.url=jdbc:h2:mem:bench" + System.nanoTime() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--spring.devtools.restart.enabled=false",
+                "--auction.bid.rate-limit.enabled=false",
+                "--auction.journal.dir=" + Files.createTempDirectory("bench-journal"),
+                "--logging.level.root=WARN");
+
+        bidManager = context.getBean(BidManager.class);
+        productManager = context.getBean(ProductManager.class);
+        notificationManager = context.getBean(NotificationManager.class);
+
+        List<Product> seeded = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            Product product = new Product();
+            product.setSellerEmail("seller@bench.local");
+            product.setName("Benchmark product " + i);
+            product.setDescription("Seeded for benchmarks");
+            product.setCategory("bench");
+            product.setQuantity(1);
+            product.setPrice(1);
+            product.setExpiryDate(LocalDate.now().plusYears(1));
+            seeded.add(product);
+        }
+        productIds = context.getBean(ProductRepository.class).saveAll(seeded).stream()
+            .mapToInt(Product::getId).toArray();
+        nextAmounts = new AtomicLongArray(products);
+
+        WalletManager walletManager = context.getBean(WalletManager.class);
+        buyerEmails = new String[buyers];
+        for (int i = 0; i < buyers; i++) {
+            buyerEmails[i] = "buyer" + i + "@bench.local";
+            walletManager.addBalance(buyerEmails[i], 1_000_000_000);
+        }
+    }
+
+    @TearDown(Level.Trial)
+    public void stop() {
+        context.close();
+    }
+
+    Bid bid(int productIndex, String buyerEmail) {
+        Bid bid = new Bid();
+        bid.setProductId(productIds[productIndex]);
+        bid.setBuyerEmail(buyerEmail);
+        bid.setBidAmount(nextAmounts.incrementAndGet(productIndex) + 1);
+        return bid;
+    }
+
+    String nextBuyer() {
+        return buyerEmails[nextBuyer.getAndIncrement() % buyerEmails.length];
+    }
+}
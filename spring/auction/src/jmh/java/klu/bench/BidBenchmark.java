@@ -0,0 +1,34 @@
+package klu.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+// BidManager.placeBid end to end: sequencing, wallet holds and the group commit to H2
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(8)
+public class BidBenchmark {
+
+    // Every thread bids on the same product, so all of them queue on one lock stripe
+    @Benchmark
+    public String singleProductContention(AuctionState auction, BuyerState buyer) {
+        return auction.bidManager.placeBid(auction.bid(0, buyer.email));
+    }
+
+    // Bids spread uniformly over all seeded products
+    @Benchmark
+    public String manyProductSpread(AuctionState auction, BuyerState buyer) {
+        return auction.bidManager.placeBid(auction.bid(buyer.anyProduct(auction), buyer.email));
+    }
+}
@@ -0,0 +1,25 @@
+package klu.bench;
+
+import java.util.SplittableRandom;
+
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+// One benchmark thread acting as one buyer
+@State(Scope.Thread)
+public class BuyerState {
+
+    String email;
+    SplittableRandom random;
+
+    @Setup
+    public void setup(AuctionState auction) {
+        email = auction.nextBuyer();
+        random = new SplittableRandom(email.hashCode());
+    }
+
+    int anyProduct(AuctionState auction) {
+        return random.nextInt(auction.productIds.length);
+    }
+}
@@ -0,0 +1,28 @@
+package klu.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Threads;
+import org.openjdk.jmh.annotations.Warmup;
+
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+@Threads(4)
+public class NotificationBenchmark {
+
+    @Benchmark
+    public void createNotification(AuctionState auction, BuyerState buyer) {
+        int productId = auction.productIds[buyer.anyProduct(auction)];
+        auction.notificationManager.createNotification(buyer.email,
+            "You've been outbid on 'Benchmark product'. Current highest bid: $10.00", "OUTBID", productId);
+    }
+}
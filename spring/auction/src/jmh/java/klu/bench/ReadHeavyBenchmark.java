@@ -0,0 +1,39 @@
+package klu.bench;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Group;
+import org.openjdk.jmh.annotations.GroupThreads;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+// A product page under load: seven viewers for every bidder
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(1)
+public class ReadHeavyBenchmark {
+
+    @Benchmark
+    @Group("readHeavy")
+    @GroupThreads(7)
+    public void viewProduct(AuctionState auction, BuyerState buyer, Blackhole blackhole) {
+        int productId = auction.productIds[buyer.anyProduct(auction)];
+        blackhole.consume(auction.productManager.getProductById(productId));
+        blackhole.consume(auction.bidManager.getHighestBid(productId));
+    }
+
+    @Benchmark
+    @Group("readHeavy")
+    @GroupThreads(1)
+    public String placeBid(AuctionState auction, BuyerState buyer) {
+        return auction.bidManager.placeBid(auction.bid(buyer.anyProduct(auction), buyer.email));
+    }
+}
@@ -0,0 +1,104 @@
+package klu.bench;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Level;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import klu.model.Product;
+import klu.model.ProductSearchIndex;
+import klu.model.ProductSummary;
+
+// ProductSearchIndex.search over generated products; no application context or database involved
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 5)
+@Measurement(iterations = 5, time = 5)
+@Fork(value = 1, jvmArgs = "-Xmx4g")
+@State(Scope.Benchmark)
+public class SearchBenchmark {
+
+    private static final String[] CATEGORIES = { "Electronics", "Furniture", "Art", "Books", "Toys", "Jewelry",
+        "Collectibles", "Fashion", "Sports", "Garden" };
+
+    @Param("1000000")
+    public int products;
+
+    @Param("5000")
+    public int vocabulary;
+
+    private ProductSearchIndex index;
+    private String[] words;
+
+    @Setup(Level.Trial)
+    public void build() {
+        SplittableRandom random = new SplittableRandom(42);
+        words = new String[vocabulary];
+        for (int i = 0; i < vocabulary; i++) {
+            words[i] = word(random);
+        }
+        index = new ProductSearchIndex();
+        for (int id = 1; id <= products; id++) {
+            Product product = new Product();
+            product.setId(id);
+            product.setName(zipfWord(random) + " " + zipfWord(random) + " " + zipfWord(random));
+            product.setCategory(CATEGORIES[random.nextInt(CATEGORIES.length)]);
+            StringBuilder description = new StringBuilder();
+            for (int w = 0; w < 20; w++) {
+                description.append(zipfWord(random)).append(' ');
+            }
+            product.setDescription(description.toString());
+            product.setPrice(1 + random.nextInt(1000));
+            product.setQuantity(1);
+            product.setExpiryDate(LocalDate.now().plusDays(random.nextInt(-30, 365)));
+            index.index(product);
+        }
+    }
+
+    @Benchmark
+    public List<ProductSummary> twoWords() {
+        return index.search(words[100] + " " + words[400], null, false, 20);
+    }
+
+    @Benchmark
+    public List<ProductSummary> commonWord() {
+        return index.search(words[0], null, false, 20);
+    }
+
+    @Benchmark
+    public List<ProductSummary> prefix() {
+        return index.search(words[250].substring(0, 3), null, true, 20);
+    }
+
+    @Benchmark
+    public List<ProductSummary> typo() {
+        String word = words[300];
+        return index.search(word.substring(0, word.length() - 1) + "q", "Art", false, 20);
+    }
+
+    // Roughly Zipf-distributed so a few words are very common, like real titles and descriptions
+    private String zipfWord(SplittableRandom random) {
+        return words[(int) Math.min(vocabulary - 1, Math.floor(Math.pow(vocabulary, random.nextDouble())) - 1)];
+    }
+
+    private static String word(SplittableRandom random) {
+        char[] letters = new char[5 + random.nextInt(5)];
+        for (int i = 0; i < letters.length; i++) {
+            letters[i] = (char) ('a' + random.nextInt(26));
+        }
+        return new String(letters);
+    }
+}
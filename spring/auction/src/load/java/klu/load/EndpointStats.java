@@ -0,0 +1,86 @@
+package klu.load;
+
+import java.io.FileNotFoundException;
+import java.io.PrintStream;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.HdrHistogram.Histogram;
+import org.HdrHistogram.Recorder;
+
+// Latency (microseconds, 3 significant digits) and outcome counts for one endpoint. Measurement
+// windows are cut with a Recorder so requests still in flight do not change a printed window.
+class EndpointStats {
+
+    private final String name;
+    private final Recorder latency = new Recorder(TimeUnit.MINUTES.toMicros(1), 3);
+    private final LongAdder ok = new LongAdder();
+    private final LongAdder rejected = new LongAdder();
+    private final LongAdder errors = new LongAdder();
+
+    EndpointStats(String name) {
+        this.name = name;
+    }
+
+    // The app answers most calls with HTTP 200 and a "<code>::message" body, so that code wins
+    void record(long startNanos, int status, String body) {
+        latency.recordValue(Math.min(TimeUnit.NANOSECONDS.toMicros(System.nanoTime() - startNanos),
+            TimeUnit.MINUTES.toMicros(1)));
+        int code = status;
+        if (status == 200 && body.length() > 5 && body.startsWith("::", 3) && Character.isDigit(body.charAt(0))) {
+            code = Integer.parseInt(body.substring(0, 3));
+        }
+        if (code / 100 == 2) {
+            ok.increment();
+        } else if (code / 100 == 4) {
+            rejected.increment();
+        } else {
+            errors.increment();
+        }
+    }
+
+    void error() {
+        errors.increment();
+    }
+
+    // Drops everything recorded so far (warmup)
+    void startWindow() {
+        latency.getIntervalHistogram();
+        ok.reset();
+        rejected.reset();
+        errors.reset();
+    }
+
+    Window endWindow() {
+        return new Window(name, latency.getIntervalHistogram(), ok.sumThenReset(), rejected.sumThenReset(),
+            errors.sumThenReset());
+    }
+
+    record Window(String name, Histogram latency, long ok, long rejected, long errors) {
+
+        static void printHeader(PrintStream out) {
+            out.printf("  %-18s %10s %10s %9s %9s %9s %9s %9s %9s %8s %8s%n", "endpoint", "requests", "req/s",
+                "p50 ms", "p90 ms", "p99 ms", "p99.9 ms", "max ms", "ok", "rejected", "errors");
+        }
+
+        void print(PrintStream out, double seconds) {
+            long count = latency.getTotalCount();
+            out.printf("  %-18s %10d %10.1f %9.2f %9.2f %9.2f %9.2f %9.2f %9d %8d %8d%n", name, count, count / seconds,
+                millis(latency.getValueAtPercentile(50)), millis(latency.getValueAtPercentile(90)),
+                millis(latency.getValueAtPercentile(99)), millis(latency.getValueAtPercentile(99.9)),
+                millis(latency.getMaxValue()), ok, rejected, errors);
+        }
+
+        // Full percentile distribution in the .hgrm format HdrHistogram's plotter reads, in milliseconds
+        void writeDistribution(Path file) throws FileNotFoundException {
+            try (PrintStream out = new PrintStream(file.toFile())) {
+                latency.outputPercentileDistribution(out, 1000.0);
+            }
+        }
+
+        private static double millis(long micros) {
+            return micros / 1000.0;
+        }
+    }
+}
@@ -0,0 +1,287 @@
+package klu.load;
+
+import java.io.IOException;
+import java.net.URI;
+import java.net.http.HttpClient;
+import java.net.http.HttpRequest;
+import java.net.http.HttpResponse;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+import org.springframework.boot.builder.SpringApplicationBuilder;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.boot.web.context.WebServerApplicationContext;
+import org.springframework.context.ConfigurableApplicationContext;
+
+import com.fasterxml.jackson.databind.JsonNode;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import klu.AuctionApplication;
+import klu.model.Product;
+import klu.repo.ProductRepository;
+
+// Closed-loop load test of the bidding endpoints over HTTP. Every simulated bidder is a virtual
+// thread that reads /bid/highest and immediately bids over it on /bid/place, then waits think-ms.
+// Products are picked with a Zipf skew so a few auctions take most of the bids, as they do when
+// they are about to end. Phases step the bidder count up so the point where p99 collapses shows.
+//
+// Options (name=value, optionally written --name=value):
+//   target    base URL of a running app; without it the app is started here on H2 with seeded products
+//   threads   request threads of the local app: platform, virtual, or platform,virtual to compare (default platform)
+//   bidders   bidders per phase, comma separated (default 100,500,1000,2000,5000)
+//   duration  measured time per phase (default 20s); warmup before each phase (default 5s)
+//   products  products seeded when starting locally (default 200)
+//   skew      Zipf exponent of product popularity, 0 = uniform (default 1.0)
+//   think-ms  pause between a bidder's bids (default 0)
+//   out       directory for the per-phase .hgrm latency distributions (default target/load)
+public class LoadGenerator {
+
+    private static final Pattern BID_AMOUNT = Pattern.compile("\"bidAmount\"\\s*:\\s*([0-9.]+)");
+
+    private final HttpClient client;
+    private final String target;
+    private final int[] productIds;
+    private final ZipfSampler popularity;
+    private final long thinkMs;
+
+    private final EndpointStats highest = new EndpointStats("GET /bid/highest");
+    private final EndpointStats place = new EndpointStats("POST /bid/place");
+
+    private volatile boolean running;
+
+    LoadGenerator(HttpClient client, String target, int[] productIds, double skew, long thinkMs) {
+        this.client = client;
+        this.target = target;
+        this.productIds = productIds;
+        this.popularity = new ZipfSampler(productIds.length, skew);
+        this.thinkMs = thinkMs;
+    }
+
+    public static void main(String[] args) throws Exception {
+        Map<String, String> options = parse(args);
+        List<Integer> phases = new ArrayList<>();
+        for (String count : options.getOrDefault("bidders", "100,500,1000,2000,5000").split(",")) {
+            phases.add(Integer.parseInt(count.trim()));
+        }
+        Duration duration = DurationStyle.detectAndParse(options.getOrDefault("duration", "20s"));
+        Duration warmup = DurationStyle.detectAndParse(options.getOrDefault("warmup", "5s"));
+        double skew = Double.parseDouble(options.getOrDefault("skew", "1.0"));
+        long thinkMs = Long.parseLong(options.getOrDefault("think-ms", "0"));
+        Path out = Path.of(options.getOrDefault("out", "target/load"));
+
+        HttpClient client = HttpClient.newBuilder()
+            .connectTimeout(Duration.ofSeconds(10))
+            .build();
+        Files.createDirectories(out);
+
+        String target = options.get("target");
+        if (target != null) {
+            run(client, target, phases, warmup, duration, skew, thinkMs, out.resolve("remote-"));
+            return;
+        }
+        int products = Integer.parseInt(options.getOrDefault("products", "200"));
+        for (String threads : options.getOrDefault("threads", "platform").split(",")) {
+            boolean virtual = switch (threads.trim()) {
+                case "platform" -> false;
+                case "virtual" -> true;
+                default -> throw new IllegalArgumentException("threads must be platform or virtual, got " + threads);
+            };
+            System.out.printf("%n=== %s request threads ===%n", threads.trim());
+            try (ConfigurableApplicationContext app = startLocally(products, virtual)) {
+                String local = "http://localhost:" + ((WebServerApplicationContext) app).getWebServer().getPort();
+                run(client, local, phases, warmup, duration, skew, thinkMs, out.resolve(threads.trim() + "-"));
+            }
+        }
+    }
+
+    private static void run(HttpClient client, String target, List<Integer> phases, Duration warmup, Duration duration,
+                            double skew, long thinkMs, Path outPrefix) throws Exception {
+        int[] productIds = fetchProductIds(client, target);
+        LoadGenerator generator = new LoadGenerator(client, target, productIds, skew, thinkMs);
+        generator.fund(phases.stream().mapToInt(Integer::intValue).max().orElse(0));
+        System.out.printf("Target %s, %d products, skew %.2f, think %d ms%n", target, productIds.length, skew, thinkMs);
+        for (int bidderCount : phases) {
+            generator.runPhase(bidderCount, warmup, duration, outPrefix);
+        }
+    }
+
+    private void runPhase(int bidderCount, Duration warmup, Duration duration, Path outPrefix) throws Exception {
+        running = true;
+        List<Thread> threads = new ArrayList<>(bidderCount);
+        for (int i = 0; i < bidderCount; i++) {
+            String email = bidderEmail(i);
+            threads.add(Thread.ofVirtual().name("bidder-" + i).start(() -> bidLoop(email)));
+        }
+
+        Thread.sleep(warmup.toMillis());
+        highest.startWindow();
+        place.startWindow();
+        long start = System.nanoTime();
+        Thread.sleep(duration.toMillis());
+        EndpointStats.Window highestWindow = highest.endWindow();
+        EndpointStats.Window placeWindow = place.endWindow();
+        double seconds = (System.nanoTime() - start) / 1e9;
+        running = false;
+
+        System.out.printf("%nPhase: %d bidders, %.1fs measured%n", bidderCount, seconds);
+        EndpointStats.Window.printHeader(System.out);
+        highestWindow.print(System.out, seconds);
+        placeWindow.print(System.out, seconds);
+        highestWindow.writeDistribution(Path.of(outPrefix + "" + bidderCount + "-bidders-highest.hgrm"));
+        placeWindow.writeDistribution(Path.of(outPrefix + "" + bidderCount + "-bidders-place.hgrm"));
+
+        for (Thread thread : threads) {
+            thread.join(Duration.ofSeconds(30));
+        }
+    }
+
+    // One closed-loop bidder: the next request is only sent once the previous one has answered
+    private void bidLoop(String email) {
+        while (running) {
+            int productId = productIds[popularity.next()];
+            double current = 0;
+
+            long start = System.nanoTime();
+            try {
+                HttpResponse<String> response = client.send(
+                    get("/bid/highest?productId=" + productId), HttpResponse.BodyHandlers.ofString());
+                highest.record(start, response.statusCode(), response.body());
+                Matcher matcher = BID_AMOUNT.matcher(response.body());
+                if (matcher.find()) {
+                    current = Double.parseDouble(matcher.group(1));
+                }
+            } catch (IOException e) {
+                highest.error();
+                continue;
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            double amount = Math.floor(current) + 1 + ThreadLocalRandom.current().nextInt(1, 5);
+            String body = "{\"productId\":" + productId + ",\"buyerEmail\":\"" + email + "\",\"bidAmount\":" + amount + "}";
+            start = System.nanoTime();
+            try {
+                HttpResponse<String> response = client.send(
+                    post("/bid/place", body), HttpResponse.BodyHandlers.ofString());
+                place.record(start, response.statusCode(), response.body());
+            } catch (IOException e) {
+                place.error();
+            } catch (InterruptedException e) {
+                return;
+            }
+
+            if (thinkMs > 0) {
+                try {
+                    Thread.sleep(thinkMs);
+                } catch (InterruptedException e) {
+                    return;
+                }
+            }
+        }
+    }
+
+    // Every bidder gets a wallet large enough that holds never reject a bid
+    private void fund(int bidderCount) throws Exception {
+        try (ExecutorService executor = Executors.newVirtualThreadPerTaskExecutor()) {
+            for (int i = 0; i < bidderCount; i++) {
+                String email = bidderEmail(i);
+                executor.submit(() -> client.send(
+                    post("/wallet/add?email=" + email + "&amount=1000000000", ""), HttpResponse.BodyHandlers.discarding()));
+            }
+        }
+    }
+
+    private HttpRequest get(String path) {
+        return HttpRequest.newBuilder(URI.create(target + path)).timeout(Duration.ofSeconds(30)).GET().build();
+    }
+
+    private HttpRequest post(String path, String json) {
+        return HttpRequest.newBuilder(URI.create(target + path))
+            .timeout(Duration.ofSeconds(30))
+            .header("Content-Type", "application/json")
+            .POST(HttpRequest.BodyPublishers.ofString(json))
+            .build();
+    }
+
+    private static String bidderEmail(int index) {
+        return "bidder" + index + "@load.local";
+    }
+
+    private static int[] fetchProductIds(HttpClient client, String target) throws Exception {
+        HttpResponse<String> response = client.send(
+            HttpRequest.newBuilder(URI.create(target + "/products/all")).GET().build(),
+            HttpResponse.BodyHandlers.ofString());
+        JsonNode products = new ObjectMapper().readTree(response.body());
+        int[] ids = new int[products.size()];
+        for (int i = 0; i < ids.length; i++) {
+            ids[i] = products.get(i).get("id").asInt();
+        }
+        if (ids.length == 0) {
+            throw new IllegalStateException("No products at " + target + "/products/all");
+        }
+        return ids;
+    }
+
+    // The real app on a random port and an in-memory H2 database; the bid rate limit is off so
+    // the run measures capacity rather than throttling
+    private static ConfigurableApplicationContext startLocally(int products, boolean virtualThreads) throws IOException {
+        ConfigurableApplicationContext app = new SpringApplicationBuilder(AuctionApplication.class)
+            .logStartupInfo(false)
+            .run(
+                "--server.port=0",
+                "--spring.threads.virtual.enabled=" + virtualThreads,
+                "--spring.datasource.url=jdbc:h2:mem:load" + System.nanoTime() + ";MODE=MySQL;DATABASE_TO_LOWER=TRUE;DB_CLOSE_DELAY=-1;DB_CLOSE_ON_EXIT=FALSE",
+                "--spring.datasource.driver-class-name=org.h2.Driver",
+                "--spring.datasource.username=sa",
+                "--spring.datasource.password=",
+                "--spring.datasource.hikari.data-source-properties.rewriteBatchedStatements=",
+                "--spring.jpa.properties.hibernate.dialect=org.hibernate.dialect.H2Dialect",
+                "--spring.jpa.hibernate.ddl-auto=create",
+                "--spring.jpa.show-sql=false",
+                "--spring.devtools.restart.enabled=false",
+                "--auction.bid.rate-limit.enabled=false",
+                "--auction.journal.dir=" + Files.createTempDirectory("load-journal"),
+                "--logging.level.root=WARN",
+                // failures are counted in the report instead of logged per request
+                "--logging.level.klu.model=OFF");
+
+        List<Product> seeded = new ArrayList<>(products);
+        for (int i = 0; i < products; i++) {
+            Product product = new Product();
+            product.setSellerEmail("seller@load.local");
+            product.setName("Load test product " + i);
+            product.setDescription("Seeded for load tests");
+            product.setCategory("load");
+            product.setQuantity(1);
+            product.setPrice(1);
+            product.setExpiryDate(LocalDate.now().plusYears(1));
+            seeded.add(product);
+        }
+        app.getBean(ProductRepository.class).saveAll(seeded);
+        return app;
+    }
+
+    private static Map<String, String> parse(String[] args) {
+        Map<String, String> options = new HashMap<>();
+        for (String arg : args) {
+            int split = arg.indexOf('=');
+            if (split < 0) {
+                throw new IllegalArgumentException("Expected name=value, got " + arg);
+            }
+            String name = arg.startsWith("--") ? arg.substring(2, split) : arg.substring(0, split);
+            options.put(name, arg.substring(split + 1));
+        }
+        return options;
+    }
+}
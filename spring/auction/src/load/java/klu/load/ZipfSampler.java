@@ -0,0 +1,28 @@
+package klu.load;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+
+// Picks item i (0-based) with probability proportional to 1 / (i + 1)^skew; skew 0 is uniform
+class ZipfSampler {
+
+    private final double[] cumulative;
+
+    ZipfSampler(int items, double skew) {
+        cumulative = new double[items];
+        double total = 0;
+        for (int i = 0; i < items; i++) {
+            total += 1 / Math.pow(i + 1, skew);
+            cumulative[i] = total;
+        }
+        for (int i = 0; i < items; i++) {
+            cumulative[i] /= total;
+        }
+    }
+
+    int next() {
+        int index = Arrays.binarySearch(cumulative, ThreadLocalRandom.current().nextDouble());
+        index = index < 0 ? -index - 1 : index;
+        return Math.min(index, cumulative.length - 1);
+    }
+}
@@ -0,0 +1,49 @@
+package klu.config;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+// Moves the id_blocks counters past ids already in each table, e.g. ones assigned by
+// AUTO_INCREMENT before the entity switched to table-generated ids (which keep JDBC batching on)
+@Component
+@DependsOn("entityManagerFactory")
+public class IdBlockInitializer {
+
+    private static final Logger logger = LoggerFactory.getLogger(IdBlockInitializer.class);
+
+    // Must exceed the allocationSize of every @TableGenerator that uses id_blocks
+    private static final long ALLOCATION_MARGIN = 1000;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @PostConstruct
+    public void init() {
+        seed("bids");
+        seed("notifications");
+        seed("proxy_bids");
+        seed("notification_outbox");
+    }
+
+    private void seed(String table) {
+        Long floor = jdbc.queryForObject("SELECT COALESCE(MAX(id), 0) FROM " + table, Long.class);
+        long required = (floor == null ? 0 : floor) + ALLOCATION_MARGIN + 1;
+
+        Long current = jdbc.query("SELECT next_val FROM id_blocks WHERE sequence_name = ?",
+            rs -> rs.next() ? rs.getLong(1) : null, table);
+
+        if (current == null) {
+            jdbc.update("INSERT INTO id_blocks (sequence_name, next_val) VALUES (?, ?)", table, required);
+            logger.info("Seeded id block for {} at {}", table, required);
+        } else if (current < required) {
+            jdbc.update("UPDATE id_blocks SET next_val = ? WHERE sequence_name = ?", required, table);
+            logger.info("Advanced id block for {} from {} to {}", table, current, required);
+        }
+    }
+}
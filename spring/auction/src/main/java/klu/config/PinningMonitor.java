@@ -0,0 +1,155 @@
+package klu.config;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.concurrent.atomic.LongAdder;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import jdk.jfr.consumer.RecordedEvent;
+import jdk.jfr.consumer.RecordedFrame;
+import jdk.jfr.consumer.RecordingStream;
+
+// Watches for virtual threads pinned to their carrier (blocking inside synchronized code or a
+// native frame) while virtual-thread mode is on. Pinned parks are read from the JFR event
+// jdk.VirtualThreadPinned, grouped by call site and reported at startup, periodically and on shutdown.
+@Component
+@ConditionalOnProperty(name = "spring.threads.virtual.enabled", havingValue = "true")
+public class PinningMonitor {
+
+    private static final Logger logger = LoggerFactory.getLogger(PinningMonitor.class);
+
+    private static final String PINNED_EVENT = "jdk.VirtualThreadPinned";
+    private static final int STACK_DEPTH = 12;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${auction.threads.pinning-threshold-ms:20}")
+    private long thresholdMs;
+
+    private final Map<String, PinnedSite> sites = new ConcurrentHashMap<>();
+    private final AtomicLong reportedEvents = new AtomicLong();
+    private RecordingStream stream;
+
+    private static final class PinnedSite {
+        final LongAdder count = new LongAdder();
+        final AtomicLong maxNanos = new AtomicLong();
+    }
+
+    @PostConstruct
+    public void start() {
+        stream = new RecordingStream();
+        stream.enable(PINNED_EVENT).withThreshold(Duration.ofMillis(thresholdMs)).withStackTrace();
+        stream.onEvent(PINNED_EVENT, this::record);
+        stream.startAsync();
+        logger.info("Virtual threads enabled; reporting pinned parks of {} ms or longer", thresholdMs);
+    }
+
+    @PreDestroy
+    public void stop() {
+        report();
+        stream.close();
+    }
+
+    // Startup check of the JDBC path: a transaction on a virtual thread, with every pinned park
+    // recorded regardless of the threshold. It runs in the background so the ready event (and
+    // any listener after this one) does not wait for the probe's JFR flush
+    @EventListener(ApplicationReadyEvent.class)
+    public void startProbe() {
+        Thread.ofPlatform().daemon().name("pinning-probe").start(() -> {
+            try {
+                probe();
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+            } catch (RuntimeException e) {
+                logger.warn("Pinning probe failed", e);
+            }
+        });
+    }
+
+    private void probe() throws InterruptedException {
+        Map<String, PinnedSite> found = new ConcurrentHashMap<>();
+        try (RecordingStream probe = new RecordingStream()) {
+            probe.enable(PINNED_EVENT).withThreshold(Duration.ZERO).withStackTrace();
+            probe.onEvent(PINNED_EVENT, event -> found.computeIfAbsent(site(event), s -> new PinnedSite()).count.increment());
+            probe.startAsync();
+
+            TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+            Thread.ofVirtual().name("pinning-probe-jdbc").start(() -> {
+                for (int i = 0; i < 10; i++) {
+                    transaction.executeWithoutResult(status -> jdbc.queryForObject("SELECT 1", Integer.class));
+                }
+            }).join(TimeUnit.SECONDS.toMillis(30));
+
+            // Let the stream flush what the probe produced
+            Thread.sleep(1500);
+        }
+
+        if (found.isEmpty()) {
+            logger.info("Pinning probe: no pinned virtual threads on the JDBC path");
+        } else {
+            found.forEach((site, stats) -> logger.warn("Pinning probe: {} pinned parks on the JDBC path at\n{}",
+                stats.count.sum(), site));
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auction.threads.pinning-report-ms:60000}")
+    public void report() {
+        long total = sites.values().stream().mapToLong(site -> site.count.sum()).sum();
+        if (total == reportedEvents.getAndSet(total)) {
+            return;
+        }
+        logger.warn("Pinned virtual threads: {} parks over {} ms at {} call sites", total, thresholdMs, sites.size());
+        sites.forEach((site, stats) -> logger.warn("  {} parks, longest {} ms, at\n{}", stats.count.sum(),
+            TimeUnit.NANOSECONDS.toMillis(stats.maxNanos.get()), site));
+    }
+
+    private void record(RecordedEvent event) {
+        String site = site(event);
+        PinnedSite stats = sites.computeIfAbsent(site, s -> new PinnedSite());
+        stats.count.increment();
+        stats.maxNanos.accumulateAndGet(event.getDuration().toNanos(), Math::max);
+        if (stats.count.sum() == 1) {
+            logger.warn("Virtual thread pinned for {} ms at\n{}", event.getDuration().toMillis(), site);
+        }
+    }
+
+    private static String site(RecordedEvent event) {
+        if (event.getStackTrace() == null) {
+            return "    (no stack trace)";
+        }
+        StringBuilder site = new StringBuilder();
+        int depth = 0;
+        for (RecordedFrame frame : event.getStackTrace().getFrames()) {
+            if (depth++ == STACK_DEPTH) {
+                break;
+            }
+            if (site.length() > 0) {
+                site.append('\n');
+            }
+            site.append("    at ").append(frame.getMethod().getType().getName()).append('.')
+                .append(frame.getMethod().getName()).append(':').append(frame.getLineNumber());
+        }
+        return site.toString();
+    }
+}
@@ -0,0 +1,106 @@
+package klu.config;
+
+import java.io.IOException;
+
+import javax.sql.DataSource;
+
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.autoconfigure.jdbc.DataSourceProperties;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.boot.jdbc.DataSourceBuilder;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.web.filter.OncePerRequestFilter;
+
+import com.zaxxer.hikari.HikariDataSource;
+
+import jakarta.servlet.FilterChain;
+import jakarta.servlet.ServletException;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Primary/replica split: @Transactional(readOnly = true) work done for GET requests reads from the
+// replica pool, everything else uses the primary. The application's DataSource is a lazy proxy, so
+// the connection is only picked once the transaction's read-only flag is known.
+@Configuration
+@ConditionalOnProperty(name = "auction.datasource.replica.enabled", havingValue = "true")
+public class ReadReplicaConfig {
+
+    @Bean
+    @ConfigurationProperties("spring.datasource.hikari")
+    public HikariDataSource primaryDataSource(DataSourceProperties properties) {
+        HikariDataSource pool = properties.initializeDataSourceBuilder().type(HikariDataSource.class).build();
+        pool.setPoolName("primary");
+        return pool;
+    }
+
+    @Bean
+    @ConfigurationProperties("auction.datasource.replica.hikari")
+    public HikariDataSource replicaDataSource(DataSourceProperties properties,
+                                              @Value("${auction.datasource.replica.url}") String url,
+                                              @Value("${auction.datasource.replica.username}") String username,
+                                              @Value("${auction.datasource.replica.password}") String password) {
+        HikariDataSource pool = DataSourceBuilder.create()
+            .type(HikariDataSource.class)
+            .driverClassName(properties.determineDriverClassName())
+            .url(url)
+            .username(username)
+            .password(password)
+            .build();
+        pool.setPoolName("replica");
+        pool.setReadOnly(true);
+        return pool;
+    }
+
+    @Bean
+    public ReplicaRoutingDataSource replicaRoutingDataSource(
+            @Qualifier("primaryDataSource") DataSource primary,
+            @Qualifier("replicaDataSource") DataSource replica,
+            @Value("${auction.datasource.replica.max-lag-ms:2000}") long maxLagMs,
+            @Value("${auction.datasource.replica.sticky-ms:5000}") long stickyMs) {
+        return new ReplicaRoutingDataSource(primary, replica, maxLagMs, stickyMs);
+    }
+
+    @Bean
+    @Primary
+    public DataSource dataSource(@Qualifier("primaryDataSource") DataSource primary, ReplicaRoutingDataSource routing) {
+        LazyConnectionDataSourceProxy proxy = new LazyConnectionDataSourceProxy(primary);
+        proxy.setReadOnlyDataSource(routing);
+        return proxy;
+    }
+
+    // GET requests may read from the replica; any other request counts as a write by its client.
+    // Clients are told apart by a signed cookie, not by address, since many users can share one.
+    @Bean
+    public OncePerRequestFilter replicaRoutingFilter(ReplicaRoutingDataSource routing,
+                                                     @Value("${auction.datasource.replica.client-secret:}") String secret) {
+        ReplicaClientCookie clients = new ReplicaClientCookie(secret);
+        return new OncePerRequestFilter() {
+            @Override
+            protected void doFilterInternal(HttpServletRequest request, HttpServletResponse response, FilterChain chain)
+                    throws ServletException, IOException {
+                String client = clients.resolve(request, response);
+                if ("GET".equals(request.getMethod()) || "HEAD".equals(request.getMethod())) {
+                    ReplicaRoutingDataSource.bindReadClient(client);
+                    try {
+                        chain.doFilter(request, response);
+                    } finally {
+                        ReplicaRoutingDataSource.clearReadClient();
+                    }
+                    return;
+                }
+                // Marked again once the write is done, so the window covers the reads that follow it
+                routing.recordWrite(client);
+                try {
+                    chain.doFilter(request, response);
+                } finally {
+                    routing.recordWrite(client);
+                }
+            }
+        };
+    }
+}
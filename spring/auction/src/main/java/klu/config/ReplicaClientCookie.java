@@ -0,0 +1,82 @@
+package klu.config;
+
+import java.nio.charset.StandardCharsets;
+import java.security.GeneralSecurityException;
+import java.security.MessageDigest;
+import java.security.SecureRandom;
+import java.util.Base64;
+import java.util.UUID;
+
+import javax.crypto.Mac;
+import javax.crypto.spec.SecretKeySpec;
+
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.ResponseCookie;
+
+import jakarta.servlet.http.Cookie;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
+
+// Identifies a browser for read-your-writes routing: a random id in an HMAC-signed cookie, so
+// users behind one address are told apart and a client cannot pick another client's id.
+// A missing or badly signed cookie is replaced with a new id on the response.
+final class ReplicaClientCookie {
+
+    static final String NAME = "replica_client";
+
+    private final SecretKeySpec key;
+
+    // An empty secret gets a random one, valid until restart; instances behind one load balancer need the same secret
+    ReplicaClientCookie(String secret) {
+        byte[] bytes = secret.isEmpty() ? new byte[32] : secret.getBytes(StandardCharsets.UTF_8);
+        if (secret.isEmpty()) {
+            new SecureRandom().nextBytes(bytes);
+        }
+        key = new SecretKeySpec(bytes, "HmacSHA256");
+    }
+
+    String resolve(HttpServletRequest request, HttpServletResponse response) {
+        Cookie[] cookies = request.getCookies();
+        if (cookies != null) {
+            for (Cookie cookie : cookies) {
+                if (NAME.equals(cookie.getName())) {
+                    String client = verify(cookie.getValue());
+                    if (client != null) {
+                        return client;
+                    }
+                }
+            }
+        }
+        String client = UUID.randomUUID().toString();
+        response.addHeader(HttpHeaders.SET_COOKIE, ResponseCookie.from(NAME, client + "." + sign(client))
+            .path("/")
+            .httpOnly(true)
+            .sameSite("Lax")
+            .build()
+            .toString());
+        return client;
+    }
+
+    // The id if the value is "<id>.<signature>" with a valid signature, otherwise null
+    String verify(String value) {
+        int dot = value.lastIndexOf('.');
+        if (dot <= 0) {
+            return null;
+        }
+        String client = value.substring(0, dot);
+        byte[] expected = sign(client).getBytes(StandardCharsets.US_ASCII);
+        byte[] actual = value.substring(dot + 1).getBytes(StandardCharsets.US_ASCII);
+        return MessageDigest.isEqual(expected, actual) ? client : null;
+    }
+
+    String sign(String client) {
+        try {
+            Mac mac = Mac.getInstance("HmacSHA256");
+            mac.init(key);
+            return Base64.getUrlEncoder().withoutPadding()
+                .encodeToString(mac.doFinal(client.getBytes(StandardCharsets.UTF_8)));
+        } catch (GeneralSecurityException e) {
+            throw new IllegalStateException("HmacSHA256 unavailable", e);
+        }
+    }
+}
@@ -0,0 +1,129 @@
+package klu.config;
+
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+import javax.sql.DataSource;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.dao.DataAccessException;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.lookup.AbstractRoutingDataSource;
+import org.springframework.scheduling.annotation.Scheduled;
+
+// Source of read-only connections: the replica while the current thread serves a GET request,
+// the replica is within the allowed lag and the client has not written recently; the primary otherwise.
+// Lag is measured with a heartbeat row: each check reads the replica's copy before writing the next
+// beat to the primary, so the replica has had a whole check interval to apply the previous one.
+public class ReplicaRoutingDataSource extends AbstractRoutingDataSource {
+
+    private static final Logger logger = LoggerFactory.getLogger(ReplicaRoutingDataSource.class);
+
+    enum Target { PRIMARY, REPLICA }
+
+    // Client of the GET request being served on this thread; unset for writes and background work
+    private static final ThreadLocal<String> readClient = new ThreadLocal<>();
+
+    private final JdbcTemplate primary;
+    private final JdbcTemplate replica;
+    private final long maxLagMs;
+    private final long stickyNanos;
+
+    // client -> System.nanoTime() of their last write
+    private final ConcurrentHashMap<String, Long> lastWrites = new ConcurrentHashMap<>();
+    private volatile boolean replicaUsable;
+    private volatile long lagMs = -1;
+    // Value of the last heartbeat written to the primary
+    private volatile long lastBeat;
+
+    public ReplicaRoutingDataSource(DataSource primary, DataSource replica, long maxLagMs, long stickyMs) {
+        this.primary = new JdbcTemplate(primary);
+        this.replica = new JdbcTemplate(replica);
+        this.maxLagMs = maxLagMs;
+        this.stickyNanos = TimeUnit.MILLISECONDS.toNanos(stickyMs);
+        setTargetDataSources(Map.of(Target.PRIMARY, primary, Target.REPLICA, replica));
+        setDefaultTargetDataSource(primary);
+    }
+
+    public static void bindReadClient(String client) {
+        readClient.set(client);
+    }
+
+    public static void clearReadClient() {
+        readClient.remove();
+    }
+
+    // The client's reads go to the primary until the sticky window after this write has passed
+    public void recordWrite(String client) {
+        lastWrites.put(client, System.nanoTime());
+    }
+
+    public boolean isReplicaUsable() {
+        return replicaUsable;
+    }
+
+    public long getLagMs() {
+        return lagMs;
+    }
+
+    @Override
+    protected Object determineCurrentLookupKey() {
+        String client = readClient.get();
+        if (client == null || !replicaUsable) {
+            return Target.PRIMARY;
+        }
+        Long written = lastWrites.get(client);
+        return written != null && System.nanoTime() - written < stickyNanos ? Target.PRIMARY : Target.REPLICA;
+    }
+
+    @Override
+    public void afterPropertiesSet() {
+        super.afterPropertiesSet();
+        primary.execute("CREATE TABLE IF NOT EXISTS replica_heartbeat (id INT PRIMARY KEY, beat_at BIGINT NOT NULL)");
+        lastBeat = System.currentTimeMillis();
+        if (primary.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1", lastBeat) == 0) {
+            primary.update("INSERT INTO replica_heartbeat (id, beat_at) VALUES (1, ?)", lastBeat);
+        }
+        checkLag();
+        if (!replicaUsable) {
+            logger.warn("Read replica not usable yet (lag {} ms); reads use the primary until it catches up", lagMs);
+        }
+    }
+
+    // A replica holding the last beat written is caught up to it; otherwise it is at least as far
+    // behind as its newest beat is old
+    @Scheduled(fixedDelayString = "${auction.datasource.replica.lag-check-ms:500}")
+    public void checkLag() {
+        boolean usable;
+        try {
+            Long beat = replica.queryForObject("SELECT beat_at FROM replica_heartbeat WHERE id = 1", Long.class);
+            lagMs = beat == lastBeat ? 0 : Math.max(0, System.currentTimeMillis() - beat);
+            usable = lagMs <= maxLagMs;
+        } catch (DataAccessException e) {
+            lagMs = -1;
+            usable = false;
+            if (replicaUsable) {
+                logger.warn("Replica heartbeat failed: {}", e.getMessage());
+            }
+        }
+        try {
+            long now = System.currentTimeMillis();
+            primary.update("UPDATE replica_heartbeat SET beat_at = ? WHERE id = 1", now);
+            lastBeat = now;
+        } catch (DataAccessException e) {
+            logger.warn("Could not write the replica heartbeat: {}", e.getMessage());
+        }
+
+        if (usable && !replicaUsable) {
+            logger.info("Read replica in use (lag {} ms)", lagMs);
+        } else if (!usable && replicaUsable) {
+            logger.warn("Read replica lag {} ms is over {} ms; reads fall back to the primary", lagMs, maxLagMs);
+        }
+        replicaUsable = usable;
+
+        long now = System.nanoTime();
+        lastWrites.values().removeIf(written -> now - written >= stickyNanos);
+    }
+}
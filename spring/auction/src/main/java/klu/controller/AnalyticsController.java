@@ -1,6 +1,7 @@
 package klu.controller;
 
 import klu.model.AnalyticsManager;
+import klu.model.ProductManager;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
@@ -13,8 +14,16 @@ public class AnalyticsController {
     @Autowired
     private AnalyticsManager analyticsManager;
 
+    @Autowired
+    private ProductManager productManager;
+
     @GetMapping("/summary")
     public Map<String, Object> getDashboardSummary() {
         return analyticsManager.getDashboardSummary();
     }
+
+    @GetMapping("/product-cache")
+    public Map<String, Object> getProductCacheStats() {
+        return productManager.getCacheStats();
+    }
 }
@@ -1,12 +1,24 @@
 package klu.controller;
 
 import klu.model.Bid;
+import klu.model.BidHistoryPage;
 import klu.model.BidManager;
+import klu.model.BidRateLimiter;
+import klu.model.MyBid;
+import klu.model.ProductActivity;
+import klu.model.ProxyBid;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.data.web.PagedModel;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import java.util.List;
+import java.util.concurrent.TimeUnit;
 
 @RestController
 @RequestMapping("/bid")
@@ -15,9 +27,27 @@ public class BidController {
     @Autowired
     private BidManager bidManager;
 
+    @Autowired
+    private BidRateLimiter rateLimiter;
+
     @PostMapping("/place")
-    public String placeBid(@RequestBody Bid bid) {
-        return bidManager.placeBid(bid);
+    public ResponseEntity<String> placeBid(@RequestBody Bid bid) {
+        // Throttled before any database work so one client cannot starve the connection pool
+        long waitNanos = rateLimiter.tryAcquire(bid.getBuyerEmail());
+        if (waitNanos > 0) {
+            return tooManyBids(waitNanos);
+        }
+        return ResponseEntity.ok(bidManager.placeBid(bid));
+    }
+
+    // Bid automatically up to maxAmount; competing proxies are settled in one step
+    @PostMapping("/proxy")
+    public ResponseEntity<String> placeProxyBid(@RequestBody ProxyBid proxyBid) {
+        long waitNanos = rateLimiter.tryAcquire(proxyBid.getBuyerEmail());
+        if (waitNanos > 0) {
+            return tooManyBids(waitNanos);
+        }
+        return ResponseEntity.ok(bidManager.placeProxyBid(proxyBid));
     }
 
     @GetMapping("/getbids")
@@ -25,8 +55,43 @@ public class BidController {
         return bidManager.getBidsForProduct(productId);
     }
 
+    @GetMapping("/history")
+    public BidHistoryPage getBidHistory(@RequestParam int productId,
+                                        @RequestParam(required = false) String cursor,
+                                        @RequestParam(required = false) Integer size) {
+        return bidManager.getBidHistory(productId, cursor, size);
+    }
+
     @GetMapping("/highest")
     public Bid getHighestBid(@RequestParam int productId) {
         return bidManager.getHighestBid(productId);
     }
+
+    @GetMapping("/activity")
+    public ProductActivity getActivity(@RequestParam int productId) {
+        return bidManager.getActivity(productId);
+    }
+
+    @GetMapping("/mine")
+    public PagedModel<MyBid> getMyBids(@RequestParam String email,
+                                       @RequestParam(defaultValue = "0") int page,
+                                       @RequestParam(defaultValue = "20") int size) {
+        return bidManager.getMyBids(email, page, size);
+    }
+
+    // Live "bid" and "highest" events for one product page
+    @GetMapping(value = "/stream", produces = MediaType.TEXT_EVENT_STREAM_VALUE)
+    public ResponseEntity<SseEmitter> streamBids(@RequestParam int productId) {
+        return ResponseEntity.ok()
+            .header("Cache-Control", "no-cache")
+            .header("X-Accel-Buffering", "no") // stop nginx from buffering the stream
+            .body(bidManager.streamBids(productId));
+    }
+
+    private static ResponseEntity<String> tooManyBids(long waitNanos) {
+        long retryAfter = Math.max(1, TimeUnit.NANOSECONDS.toSeconds(waitNanos + 999_999_999));
+        return ResponseEntity.status(HttpStatus.TOO_MANY_REQUESTS)
+            .header(HttpHeaders.RETRY_AFTER, String.valueOf(retryAfter))
+            .body("429::Too many bids, please retry in " + retryAfter + "s");
+    }
 }
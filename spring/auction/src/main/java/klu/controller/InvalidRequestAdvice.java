@@ -0,0 +1,16 @@
+package klu.controller;
+
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.bind.annotation.RestControllerAdvice;
+
+// Malformed request values (paging cursors, sort names) are rejected by the managers with
+// IllegalArgumentException; for these controllers that is the client's error, not the server's
+@RestControllerAdvice(assignableTypes = { BidController.class, NotificationController.class, ProductController.class })
+public class InvalidRequestAdvice {
+
+    @ExceptionHandler(IllegalArgumentException.class)
+    public ResponseEntity<String> invalidRequest(IllegalArgumentException e) {
+        return ResponseEntity.badRequest().body("400::" + e.getMessage());
+    }
+}
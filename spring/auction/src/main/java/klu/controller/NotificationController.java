@@ -2,9 +2,11 @@ package klu.controller;
 
 import klu.model.Notification;
 import klu.model.NotificationManager;
+import klu.model.NotificationPage;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDateTime;
 import java.util.List;
 import java.util.Map;
 
@@ -16,8 +18,10 @@ public class NotificationController {
     private NotificationManager notificationManager;
 
     @GetMapping("/user")
-    public List<Notification> getUserNotifications(@RequestParam String email) {
-        return notificationManager.getUserNotifications(email);
+    public NotificationPage getUserNotifications(@RequestParam String email,
+                                                 @RequestParam(required = false) String cursor,
+                                                 @RequestParam(required = false) Integer size) {
+        return notificationManager.getUserNotifications(email, cursor, size);
     }
 
     @GetMapping("/unread")
@@ -35,9 +39,28 @@ public class NotificationController {
         return notificationManager.markAsRead(id);
     }
 
+    // Optional "type" and "productId" narrow it to one kind of notification or one auction
     @PostMapping("/mark-all-read")
     public String markAllAsRead(@RequestBody Map<String, String> data) {
-        return notificationManager.markAllAsRead(data.get("email"));
+        return notificationManager.markAllAsRead(data.get("email"), data.get("type"), productId(data));
+    }
+
+    // Deletes the user's notifications, optionally only those of a type, a product or older than N days
+    @PostMapping("/delete")
+    public String deleteNotifications(@RequestBody Map<String, String> data) {
+        String days = data.get("olderThanDays");
+        LocalDateTime before = days != null ? LocalDateTime.now().minusDays(Integer.parseInt(days)) : LocalDateTime.now();
+        return notificationManager.deleteNotifications(data.get("email"), data.get("type"), productId(data), before);
+    }
+
+    @DeleteMapping("/older-than")
+    public String deleteOlderThan(@RequestParam int days) {
+        return notificationManager.deleteOlderThan(days);
+    }
+
+    private static Integer productId(Map<String, String> data) {
+        String productId = data.get("productId");
+        return productId != null ? Integer.valueOf(productId) : null;
     }
 }
 
@@ -3,12 +3,21 @@ package klu.controller;
 import java.util.List;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.web.bind.annotation.*;
+import klu.model.CatalogPage;
+import klu.model.CatalogQuery;
 import klu.model.Product;
+import klu.model.PhotoStore;
+import klu.model.PhotoVariants;
 import klu.model.ProductManager;
+import klu.model.ProductSummary;
 import org.springframework.web.multipart.MultipartFile;
+import java.io.InputStream;
 import java.nio.file.Files;
 import java.nio.file.Path;
-import java.nio.file.Paths;
+import org.springframework.core.io.FileSystemResource;
+import org.springframework.core.io.Resource;
+import org.springframework.http.CacheControl;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import com.fasterxml.jackson.databind.ObjectMapper;
@@ -17,8 +26,13 @@ import org.springframework.http.HttpStatus;
 import org.slf4j.Logger;
 import org.slf4j.LoggerFactory;
 import org.springframework.util.MimeTypeUtils;
+import org.springframework.util.StringUtils;
 import java.time.LocalDate;
 import java.time.format.DateTimeFormatter;
+import java.util.concurrent.TimeUnit;
+import org.springframework.web.context.request.ServletWebRequest;
+import jakarta.servlet.http.HttpServletRequest;
+import jakarta.servlet.http.HttpServletResponse;
 
 @RestController
 @RequestMapping("/products")
@@ -28,6 +42,20 @@ public class ProductController {
     
     @Autowired
     private ProductManager PM;
+
+    @Autowired
+    private PhotoStore photoStore;
+
+    @Autowired
+    private PhotoVariants photoVariants;
+
+    private static final CacheControl PHOTO_CACHE_CONTROL = CacheControl.maxAge(365, TimeUnit.DAYS).cachePublic().immutable();
+
+    // Request attributes of Tomcat's sendfile support
+    private static final String SENDFILE_SUPPORTED = "org.apache.tomcat.sendfile.support";
+    private static final String SENDFILE_FILENAME = "org.apache.tomcat.sendfile.filename";
+    private static final String SENDFILE_START = "org.apache.tomcat.sendfile.start";
+    private static final String SENDFILE_END = "org.apache.tomcat.sendfile.end";
     
     private final ObjectMapper objectMapper;
 
@@ -44,6 +72,7 @@ public class ProductController {
         try {
             logger.info("Received product JSON: {}", productJson);
             Product product = objectMapper.readValue(productJson, Product.class);
+            String fileName = null;
             
             if (photo != null && !photo.isEmpty()) {
                 logger.info("Received photo: {}, size: {}", photo.getOriginalFilename(), photo.getSize());
@@ -51,20 +80,25 @@ public class ProductController {
                     return ResponseEntity.badRequest().body("Photo size exceeds 2MB limit.");
                 }
                 
-                String uploadDir = "uploads/";
-                Path uploadPath = Paths.get(uploadDir);
+                Path uploadPath = PhotoStore.UPLOAD_DIR;
                 if (!Files.exists(uploadPath)) {
                     Files.createDirectories(uploadPath);
                 }
                 
-                String fileName = System.currentTimeMillis() + "_" + photo.getOriginalFilename();
+                fileName = System.currentTimeMillis() + "_" + StringUtils.getFilename(photo.getOriginalFilename());
                 Path filePath = uploadPath.resolve(fileName);
-                Files.write(filePath, photo.getBytes());
-                product.setPhotoUrl("/products/photo/" + fileName);
+                // Streamed to disk rather than copied into a byte[] first
+                try (InputStream in = photo.getInputStream()) {
+                    Files.copy(in, filePath);
+                }
+                product.setPhotoUrl(PhotoStore.URL_PREFIX + fileName);
             }
             
             String result = PM.addProduct(product);
             if (result.startsWith("200::")) {
+                if (fileName != null) {
+                    photoVariants.submit(product.getId(), fileName);
+                }
                 return ResponseEntity.ok(result.substring(5));
             } else {
                 return ResponseEntity.badRequest().body(result.substring(5));
@@ -76,23 +110,41 @@ public class ProductController {
         }
     }
 
+    // Photos never change once uploaded: they are cached by clients for a year and revalidated by
+    // ETag/Last-Modified. Plain GETs are handed to Tomcat's sendfile so the bytes go from the file
+    // to the socket without passing through the heap; Range requests are served as regions.
     @GetMapping("/photo/{filename:.+}")
-    public ResponseEntity<byte[]> getPhoto(@PathVariable String filename) {
+    public ResponseEntity<Resource> getPhoto(@PathVariable String filename, ServletWebRequest webRequest) {
         try {
-            Path filePath = Paths.get("uploads", filename);
-            if (!Files.exists(filePath)) {
+            PhotoStore.Photo photo = photoStore.find(filename);
+            if (photo == null) {
                 return ResponseEntity.notFound().build();
             }
-            
-            byte[] photoBytes = Files.readAllBytes(filePath);
-            String contentType = Files.probeContentType(filePath);
-            if (contentType == null) {
-                contentType = MediaType.IMAGE_JPEG_VALUE;
+            if (webRequest.checkNotModified(photo.etag(), photo.lastModified())) {
+                return null; // 304 already written
             }
-            
+
+            HttpServletRequest request = webRequest.getRequest();
+            HttpServletResponse response = webRequest.getResponse();
+            if ("GET".equals(request.getMethod()) && request.getHeader(HttpHeaders.RANGE) == null
+                    && Boolean.TRUE.equals(request.getAttribute(SENDFILE_SUPPORTED)) && response != null) {
+                response.setContentType(photo.mediaType().toString());
+                response.setContentLengthLong(photo.size());
+                response.setHeader(HttpHeaders.CACHE_CONTROL, PHOTO_CACHE_CONTROL.getHeaderValue());
+                response.setHeader(HttpHeaders.ACCEPT_RANGES, "bytes");
+                request.setAttribute(SENDFILE_FILENAME, photo.path().toAbsolutePath().toString());
+                request.setAttribute(SENDFILE_START, 0L);
+                request.setAttribute(SENDFILE_END, photo.size());
+                return null;
+            }
+
+            // Spring answers Range headers on a Resource body with 206 and the requested regions
             return ResponseEntity.ok()
-                .contentType(MediaType.parseMediaType(contentType))
-                .body(photoBytes);
+                .contentType(photo.mediaType())
+                .cacheControl(PHOTO_CACHE_CONTROL)
+                .eTag(photo.etag())
+                .lastModified(photo.lastModified())
+                .body(new FileSystemResource(photo.path()));
         } catch (Exception e) {
             logger.error("Error serving photo: ", e);
             return ResponseEntity.status(HttpStatus.INTERNAL_SERVER_ERROR).build();
@@ -114,6 +166,30 @@ public class ProductController {
         return PM.getAllProducts();
     }
 
+    // Paged product cards for browsing; see CatalogQuery.Sort for the orders
+    @GetMapping("/catalog")
+    public CatalogPage getCatalog(@RequestParam(required = false) String category,
+                                  @RequestParam(required = false) Double minPrice,
+                                  @RequestParam(required = false) Double maxPrice,
+                                  @RequestParam(defaultValue = "false") boolean activeOnly,
+                                  @RequestParam(required = false) String seller,
+                                  @RequestParam(required = false) String sort,
+                                  @RequestParam(required = false) String cursor,
+                                  @RequestParam(required = false) Integer size) {
+        CatalogQuery query = new CatalogQuery(blankToNull(category), minPrice, maxPrice, activeOnly, blankToNull(seller),
+            CatalogQuery.Sort.of(sort));
+        return PM.getCatalog(query, cursor, size);
+    }
+
+    // Ranked full-text matches on name, category and description
+    @GetMapping("/search")
+    public List<ProductSummary> searchProducts(@RequestParam String q,
+                                              @RequestParam(required = false) String category,
+                                              @RequestParam(defaultValue = "false") boolean activeOnly,
+                                              @RequestParam(required = false) Integer size) {
+        return PM.searchProducts(q, blankToNull(category), activeOnly, size);
+    }
+
     @GetMapping("/{id}")
     public Product getProductById(@PathVariable("id") int id) {
         return PM.getProductById(id);
@@ -123,4 +199,8 @@ public class ProductController {
     public List<Product> getProductsBySeller(@PathVariable("email") String email) {
         return PM.getProductsBySeller(email);
     }
-}
\ No newline at end of file
+
+    private static String blankToNull(String value) {
+        return value == null || value.isBlank() ? null : value;
+    }
+}
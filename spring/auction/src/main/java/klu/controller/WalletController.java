@@ -22,6 +22,11 @@ public class WalletController {
         return WM.getBalance(email);
     }
 
+    @GetMapping("/available")
+    public double getAvailableBalance(@RequestParam String email) {
+        return WM.getAvailableBalance(email);
+    }
+
     @PostMapping("/deduct")
     public String deduct(@RequestParam String email, @RequestParam double amount) {
         return WM.deductBalance(email, amount);
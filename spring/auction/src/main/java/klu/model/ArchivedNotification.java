@@ -0,0 +1,70 @@
+package klu.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// A read notification moved out of the notifications table by NotificationRetention; keeps the
+// original id and drops the read flag, which is always true here
+@Entity
+@Table(name = "notifications_archive", indexes = {
+    @Index(name = "idx_notifications_archive_user_time", columnList = "userEmail, createdAt")
+})
+public class ArchivedNotification {
+
+    @Id
+    private int id;
+
+    private String userEmail;
+    private String message;
+    private String type;
+    private LocalDateTime createdAt;
+    private Integer productId;
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getUserEmail() {
+        return userEmail;
+    }
+
+    public void setUserEmail(String userEmail) {
+        this.userEmail = userEmail;
+    }
+
+    public String getMessage() {
+        return message;
+    }
+
+    public void setMessage(String message) {
+        this.message = message;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public Integer getProductId() {
+        return productId;
+    }
+
+    public void setProductId(Integer productId) {
+        this.productId = productId;
+    }
+}
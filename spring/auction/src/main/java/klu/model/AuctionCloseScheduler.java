@@ -0,0 +1,157 @@
+package klu.model;
+
+import java.time.LocalDate;
+import java.time.ZoneId;
+import java.util.Arrays;
+import java.util.concurrent.locks.ReentrantLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.context.event.EventListener;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import klu.repo.ProductRepository;
+
+// Closes auctions when Product.expiryDate runs out. Pending closes sit in a hashed timing wheel,
+// loaded at startup and kept in step with product add, update and delete. Product.closed records
+// the closes already announced, so one missed during downtime is made at startup.
+@Component
+public class AuctionCloseScheduler {
+
+    private static final Logger logger = LoggerFactory.getLogger(AuctionCloseScheduler.class);
+
+    @Autowired
+    private ProductRepository productRepo;
+
+    @Autowired
+    private ApplicationEventPublisher eventPublisher;
+
+    @Value("${auction.close.tick-ms:1000}")
+    private long tickMs;
+
+    @Value("${auction.close.wheel-size:4096}")
+    private int wheelSize;
+
+    private final ReentrantLock lock = new ReentrantLock();
+    private TimingWheel wheel;
+    private Thread ticker;
+    private volatile boolean running;
+
+    // An auction runs through the whole of its expiry date
+    public static long closeTimeMillis(LocalDate expiryDate) {
+        return expiryDate.plusDays(1).atStartOfDay(ZoneId.systemDefault()).toInstant().toEpochMilli();
+    }
+
+    public static boolean isClosed(Product product) {
+        return product.getExpiryDate() != null
+            && System.currentTimeMillis() >= closeTimeMillis(product.getExpiryDate());
+    }
+
+    @PostConstruct
+    public void start() {
+        long now = System.currentTimeMillis();
+        wheel = new TimingWheel(tickMs, wheelSize, now);
+        // Auctions that ended while the application was down are overdue and close on the first tick
+        int overdue = 0;
+        for (ProductExpiry expiry : productRepo.findUnclosed(LocalDate.now())) {
+            long closeTime = closeTimeMillis(expiry.getExpiryDate());
+            if (closeTime <= now) {
+                overdue++;
+            }
+            wheel.schedule(expiry.getId(), closeTime);
+        }
+        logger.info("Auction close scheduler loaded {} pending auctions, {} of them overdue", wheel.size(), overdue);
+    }
+
+    // Ticks start once the context is ready: a close published while beans are still being
+    // created would reach no @EventListener
+    @EventListener(ApplicationReadyEvent.class)
+    public void startTicking() {
+        running = true;
+        ticker = new Thread(this::run, "auction-close");
+        ticker.setDaemon(true);
+        ticker.start();
+    }
+
+    @PreDestroy
+    public void stop() {
+        running = false;
+        if (ticker != null) {
+            ticker.interrupt();
+        }
+    }
+
+    public void schedule(Product product) {
+        if (product.getExpiryDate() == null) {
+            cancel(product.getId());
+            return;
+        }
+        lock.lock();
+        try {
+            wheel.schedule(product.getId(), closeTimeMillis(product.getExpiryDate()));
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public void cancel(int productId) {
+        lock.lock();
+        try {
+            wheel.cancel(productId);
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    public int getPendingCount() {
+        lock.lock();
+        try {
+            return wheel.size();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private void run() {
+        while (running) {
+            try {
+                Thread.sleep(tickMs);
+            } catch (InterruptedException e) {
+                return;
+            }
+            IntList closed = new IntList();
+            lock.lock();
+            try {
+                wheel.advance(System.currentTimeMillis(), closed::add);
+            } finally {
+                lock.unlock();
+            }
+            // Listeners run outside the wheel lock
+            for (int i = 0; i < closed.size; i++) {
+                try {
+                    eventPublisher.publishEvent(new AuctionClosedEvent(closed.values[i]));
+                } catch (Exception e) {
+                    logger.error("Error closing auction {}: ", closed.values[i], e);
+                }
+            }
+        }
+    }
+
+    private static final class IntList {
+        int[] values = new int[16];
+        int size;
+
+        void add(int value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+    }
+}
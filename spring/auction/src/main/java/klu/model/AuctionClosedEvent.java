@@ -0,0 +1,14 @@
+package klu.model;
+
+public class AuctionClosedEvent {
+
+    private final int productId;
+
+    public AuctionClosedEvent(int productId) {
+        this.productId = productId;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+}
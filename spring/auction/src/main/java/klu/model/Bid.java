@@ -4,11 +4,16 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "bids")
+@Table(name = "bids", indexes = {
+    @Index(name = "idx_bids_buyer_product", columnList = "buyerEmail, productId"),
+    @Index(name = "idx_bids_product_time", columnList = "productId, bidTime")
+})
 public class Bid {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "bid_id")
+    @TableGenerator(name = "bid_id", table = "id_blocks", pkColumnName = "sequence_name",
+                    valueColumnName = "next_val", pkColumnValue = "bids", allocationSize = 100)
     private int id;
 
     private int productId;
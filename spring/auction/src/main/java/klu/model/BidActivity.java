@@ -0,0 +1,13 @@
+package klu.model;
+
+import java.time.LocalDateTime;
+
+// Per-product bid count and latest bid time, aggregated in the database
+public interface BidActivity {
+
+    int getProductId();
+
+    long getBidCount();
+
+    LocalDateTime getLastBidTime();
+}
@@ -0,0 +1,104 @@
+package klu.model;
+
+import java.util.Collection;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import klu.repo.ProxyBidRepository;
+
+// In-memory leading bid and active proxy bids per product, so highest-bid reads and
+// proxy resolution never hit the database
+@Component
+public class BidBook {
+
+    private static final Logger logger = LoggerFactory.getLogger(BidBook.class);
+
+    @Autowired
+    private BidJournal journal;
+
+    @Autowired
+    private ProxyBidRepository proxyRepo;
+
+    private final ConcurrentHashMap<Integer, Bid> leaders = new ConcurrentHashMap<>();
+
+    // productId -> buyerEmail -> proxy, in creation order; only touched under the product lock
+    private final ConcurrentHashMap<Integer, Map<String, ProxyBid>> proxies = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void warm() {
+        for (ProductActivity product : journal.getActivities()) {
+            if (product.getLeader() != null) {
+                leaders.put(product.getProductId(), product.getLeader());
+            }
+        }
+        for (ProxyBid proxy : proxyRepo.findByActiveTrueOrderByCreatedAtAsc()) {
+            putProxy(proxy);
+        }
+        logger.info("Bid book warmed with {} leading bids and proxies on {} products", leaders.size(), proxies.size());
+    }
+
+    public Bid getLeader(int productId) {
+        return leaders.get(productId);
+    }
+
+    public Collection<Bid> getLeaders() {
+        return leaders.values();
+    }
+
+    public boolean isCompetitive(int productId, double amount) {
+        Bid leader = leaders.get(productId);
+        return leader == null || amount > leader.getBidAmount();
+    }
+
+    // Sets the leader decided by the caller while holding the product lock
+    public void setLeader(Bid bid) {
+        leaders.put(bid.getProductId(), bid);
+    }
+
+    // Read-only; changes go through putProxy and removeProxy so a product without proxies has no entry
+    public Map<String, ProxyBid> getProxies(int productId) {
+        Map<String, ProxyBid> book = proxies.get(productId);
+        return book == null ? Map.of() : Collections.unmodifiableMap(book);
+    }
+
+    // A replaced proxy keeps its place in the creation order
+    public void putProxy(ProxyBid proxy) {
+        proxies.computeIfAbsent(proxy.getProductId(), id -> new LinkedHashMap<>()).put(proxy.getBuyerEmail(), proxy);
+    }
+
+    public void removeProxy(int productId, String buyerEmail) {
+        proxies.computeIfPresent(productId, (id, book) -> {
+            book.remove(buyerEmail);
+            return book.isEmpty() ? null : book;
+        });
+    }
+
+    public void restoreProxies(int productId, Map<String, ProxyBid> snapshot) {
+        if (snapshot.isEmpty()) {
+            proxies.remove(productId);
+        } else {
+            proxies.put(productId, new LinkedHashMap<>(snapshot));
+        }
+    }
+
+    public void clearProxies(int productId) {
+        proxies.remove(productId);
+    }
+
+    // Puts back the leader from before writes that failed; null when the product had none
+    public void restoreLeader(int productId, Bid leader) {
+        if (leader == null) {
+            leaders.remove(productId);
+        } else {
+            leaders.put(productId, leader);
+        }
+    }
+}
@@ -0,0 +1,50 @@
+package klu.model;
+
+import java.time.LocalDateTime;
+
+// Lightweight view of a bid for public history lists; the bidder's email is masked
+public class BidHistoryEntry {
+
+    private int id;
+    private double amount;
+    private String bidder;
+    private LocalDateTime bidTime;
+
+    public BidHistoryEntry(int id, double amount, String buyerEmail, LocalDateTime bidTime) {
+        this.id = id;
+        this.amount = amount;
+        this.bidder = mask(buyerEmail);
+        this.bidTime = bidTime;
+    }
+
+    public static BidHistoryEntry of(Bid bid) {
+        return new BidHistoryEntry(bid.getId(), bid.getBidAmount(), bid.getBuyerEmail(), bid.getBidTime());
+    }
+
+    // "john.doe@gmail.com" -> "jo***@gmail.com"
+    static String mask(String email) {
+        if (email == null) {
+            return null;
+        }
+        int at = email.indexOf('@');
+        String local = at >= 0 ? email.substring(0, at) : email;
+        String domain = at >= 0 ? email.substring(at) : "";
+        return local.substring(0, Math.min(2, local.length())) + "***" + domain;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public String getBidder() {
+        return bidder;
+    }
+
+    public LocalDateTime getBidTime() {
+        return bidTime;
+    }
+}
@@ -0,0 +1,22 @@
+package klu.model;
+
+import java.util.List;
+
+public class BidHistoryPage {
+
+    private List<BidHistoryEntry> items;
+    private String nextCursor; // null when there are no older bids
+
+    public BidHistoryPage(List<BidHistoryEntry> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<BidHistoryEntry> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
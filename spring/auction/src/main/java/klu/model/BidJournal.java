@@ -0,0 +1,431 @@
+package klu.model;
+
+import java.io.BufferedInputStream;
+import java.io.BufferedOutputStream;
+import java.io.DataInputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.time.LocalDateTime;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.List;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.stream.Stream;
+import java.util.zip.CRC32C;
+import java.util.zip.CheckedInputStream;
+import java.util.zip.CheckedOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import klu.repo.BidRepository;
+
+// Append-only journal of committed bids with periodic snapshots of per-product state (leader,
+// bid count, last bid time). Startup loads the newest snapshot and replays only the records after
+// it, so warm-up does not grow with the bids table. The journal is a cache of that table: when
+// the highest bid id it has seen differs from the table's, the state is rebuilt from the database.
+@Component
+public class BidJournal {
+
+    private static final Logger logger = LoggerFactory.getLogger(BidJournal.class);
+
+    private static final int SNAPSHOT_MAGIC = 0x424A534E;
+    private static final int SNAPSHOT_VERSION = 1;
+    private static final int SNAPSHOTS_KEPT = 2;
+    private static final byte FLAG_LEADER = 1;
+    // seq, bid id, product id, amount, time, flags and email length; the UTF-8 email follows
+    private static final int RECORD_HEADER = 35;
+
+    @Autowired
+    private BidRepository bidRepo;
+
+    @Value("${auction.journal.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auction.journal.dir:data/journal}")
+    private Path dir;
+
+    @Value("${auction.journal.segment-size:64MB}")
+    private String segmentSize;
+
+    @Value("${auction.journal.snapshot-every:50000}")
+    private long snapshotEvery;
+
+    @Value("${auction.journal.snapshot-interval-ms:300000}")
+    private long snapshotIntervalMs;
+
+    private final ConcurrentHashMap<Integer, ProductActivity> activity = new ConcurrentHashMap<>();
+
+    // Orders appends against snapshot copies; appends come from the bid-writer thread only
+    private final ReentrantLock lock = new ReentrantLock();
+    private ByteBuffer record = ByteBuffer.allocate(1024);
+    private int segmentBytes;
+    private JournalSegment active;
+    private volatile boolean writable;
+    private long lastSeq;
+    private int maxBidId;
+    private long snapshotSeq;
+    private long snapshotAt;
+
+    @PostConstruct
+    public void start() throws IOException {
+        long started = System.nanoTime();
+        segmentBytes = (int) DataSize.parse(segmentSize).toBytes();
+
+        String source;
+        if (enabled && load()) {
+            source = "journal";
+        } else {
+            rebuildFromDatabase();
+            source = "bids table";
+        }
+        writable = enabled;
+        snapshotAt = System.currentTimeMillis();
+        logger.info("Bid state for {} products loaded from the {} in {} ms (journal seq {})", activity.size(), source,
+            TimeUnit.NANOSECONDS.toMillis(System.nanoTime() - started), lastSeq);
+    }
+
+    @PreDestroy
+    public void stop() throws IOException {
+        if (writable) {
+            if (lastSeq > snapshotSeq) {
+                snapshot();
+            }
+            active.force();
+            active.close();
+        }
+    }
+
+    public Collection<ProductActivity> getActivities() {
+        return activity.values();
+    }
+
+    public ProductActivity getActivity(int productId) {
+        return activity.get(productId);
+    }
+
+    // Called by the bid writer after the batch holding these bids has committed
+    public void append(List<Bid> bids, Bid leader) {
+        lock.lock();
+        try {
+            for (Bid bid : bids) {
+                boolean leading = bid == leader;
+                apply(bid, leading);
+                lastSeq++;
+                if (writable) {
+                    write(lastSeq, bid, leading);
+                }
+            }
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    @Scheduled(fixedDelayString = "${auction.journal.snapshot-check-ms:10000}")
+    public void maybeSnapshot() throws IOException {
+        long pending = lastSeq - snapshotSeq;
+        boolean due = pending >= snapshotEvery
+            || (pending > 0 && System.currentTimeMillis() - snapshotAt >= snapshotIntervalMs);
+        if (writable && due) {
+            snapshot();
+        }
+    }
+
+    private void apply(Bid bid, boolean leading) {
+        activity.compute(bid.getProductId(), (id, current) ->
+            (current != null ? current : new ProductActivity(id, 0, null, null)).withBid(bid, leading));
+        maxBidId = Math.max(maxBidId, bid.getId());
+    }
+
+    private void write(long seq, Bid bid, boolean leading) {
+        byte[] email = bid.getBuyerEmail().getBytes(StandardCharsets.UTF_8);
+        try {
+            if (email.length > Short.MAX_VALUE) {
+                throw new IOException("Buyer email of bid " + bid.getId() + " is too long to journal");
+            }
+            if (record.capacity() < RECORD_HEADER + email.length) {
+                record = ByteBuffer.allocate(RECORD_HEADER + email.length);
+            }
+            record.clear();
+            record.putLong(seq)
+                .putInt(bid.getId())
+                .putInt(bid.getProductId())
+                .putDouble(bid.getBidAmount())
+                .putLong(toMicros(bid.getBidTime()))
+                .put(leading ? FLAG_LEADER : 0)
+                .putShort((short) email.length)
+                .put(email)
+                .flip();
+            if (!active.append(record)) {
+                active.force();
+                active.close();
+                active = JournalSegment.open(segmentPath(seq), seq, segmentBytes);
+                if (!active.append(record)) {
+                    throw new IOException("Journal record larger than a segment");
+                }
+            }
+        } catch (IOException e) {
+            // The bids are committed either way; the next start sees the gap and rebuilds
+            logger.error("Bid journal disabled after a write failure: ", e);
+            writable = false;
+        }
+    }
+
+    private Bid read(ByteBuffer payload, long[] seq, boolean[] leading) {
+        seq[0] = payload.getLong();
+        Bid bid = new Bid();
+        bid.setId(payload.getInt());
+        bid.setProductId(payload.getInt());
+        bid.setBidAmount(payload.getDouble());
+        bid.setBidTime(fromMicros(payload.getLong()));
+        leading[0] = payload.get() == FLAG_LEADER;
+        byte[] email = new byte[payload.getShort()];
+        payload.get(email);
+        bid.setBuyerEmail(new String(email, StandardCharsets.UTF_8));
+        return bid;
+    }
+
+    // Newest readable snapshot plus the records after it; false if the result cannot be trusted
+    private boolean load() throws IOException {
+        Files.createDirectories(dir);
+        for (Path snapshot : list("snapshot-", ".bin")) {
+            try {
+                readSnapshot(snapshot);
+                break;
+            } catch (IOException e) {
+                logger.warn("Skipping unreadable snapshot {}: {}", snapshot.getFileName(), e.getMessage());
+                activity.clear();
+                lastSeq = 0;
+                maxBidId = 0;
+            }
+        }
+        snapshotSeq = lastSeq;
+
+        List<Path> segments = list("bids-", ".log").reversed();
+        long[] seq = new long[1];
+        boolean[] leading = new boolean[1];
+        boolean consistent = true;
+        for (int i = 0; i < segments.size() && consistent; i++) {
+            Path path = segments.get(i);
+            JournalSegment segment = JournalSegment.open(path, parseSeq(path, "bids-"), segmentBytes);
+            boolean[] gap = new boolean[1];
+            boolean intact = segment.replay(payload -> {
+                Bid bid = read(payload, seq, leading);
+                if (seq[0] <= lastSeq) {
+                    return; // already in the snapshot
+                }
+                if (seq[0] != lastSeq + 1) {
+                    gap[0] = true;
+                    return;
+                }
+                apply(bid, leading[0]);
+                lastSeq = seq[0];
+            });
+            consistent = !gap[0] && (intact || i == segments.size() - 1);
+            if (i == segments.size() - 1 && consistent) {
+                active = segment; // keep appending after the last intact record
+            } else {
+                segment.close();
+            }
+        }
+        if (!consistent) {
+            logger.warn("Bid journal has a gap or a damaged segment; rebuilding from the bids table");
+            return false;
+        }
+
+        int tableMaxId = bidRepo.findMaxId();
+        if (tableMaxId != maxBidId) {
+            logger.warn("Bid journal ends at bid {} but the bids table at {}; rebuilding from the bids table",
+                maxBidId, tableMaxId);
+            if (active != null) {
+                active.close();
+                active = null;
+            }
+            return false;
+        }
+        if (active == null) {
+            active = JournalSegment.open(segmentPath(lastSeq + 1), lastSeq + 1, segmentBytes);
+        }
+        logger.info("Bid journal replayed {} records after the snapshot at seq {}", lastSeq - snapshotSeq, snapshotSeq);
+        return true;
+    }
+
+    private void rebuildFromDatabase() throws IOException {
+        activity.clear();
+        for (BidActivity row : bidRepo.findBidActivity()) {
+            activity.put(row.getProductId(),
+                new ProductActivity(row.getProductId(), (int) row.getBidCount(), row.getLastBidTime(), null));
+        }
+        for (Bid bid : bidRepo.findLeadingBids()) {
+            // Equal top amounts only come from an automatic bid matching a manual one,
+            // and the row written last is the one that took the lead
+            activity.computeIfPresent(bid.getProductId(), (id, current) ->
+                current.getLeader() == null || bid.getId() > current.getLeader().getId()
+                    ? new ProductActivity(id, current.getBidCount(), current.getLastBidTime(), bid)
+                    : current);
+        }
+        maxBidId = bidRepo.findMaxId();
+        lastSeq = 0;
+        snapshotSeq = 0;
+
+        if (enabled) {
+            // Start a fresh journal from this state
+            Files.createDirectories(dir);
+            for (Path old : list("bids-", ".log")) {
+                Files.delete(old);
+            }
+            for (Path old : list("snapshot-", ".bin")) {
+                Files.delete(old);
+            }
+            active = JournalSegment.open(segmentPath(1), 1, segmentBytes);
+            writeSnapshot(new ArrayList<>(activity.values()), 0, maxBidId);
+        }
+    }
+
+    private void snapshot() throws IOException {
+        List<ProductActivity> copy;
+        long seq;
+        int maxId;
+        lock.lock();
+        try {
+            copy = new ArrayList<>(activity.values());
+            seq = lastSeq;
+            maxId = maxBidId;
+        } finally {
+            lock.unlock();
+        }
+        writeSnapshot(copy, seq, maxId);
+        snapshotSeq = seq;
+        snapshotAt = System.currentTimeMillis();
+
+        // Segments wholly covered by the snapshot are no longer needed
+        List<Path> segments = list("bids-", ".log").reversed();
+        for (int i = 0; i + 1 < segments.size(); i++) {
+            if (parseSeq(segments.get(i + 1), "bids-") <= seq + 1) {
+                Files.deleteIfExists(segments.get(i));
+            }
+        }
+        List<Path> snapshots = list("snapshot-", ".bin");
+        for (int i = SNAPSHOTS_KEPT; i < snapshots.size(); i++) {
+            Files.deleteIfExists(snapshots.get(i));
+        }
+        logger.info("Bid journal snapshot of {} products at seq {}", copy.size(), seq);
+    }
+
+    private void writeSnapshot(List<ProductActivity> products, long seq, int maxId) throws IOException {
+        Path target = dir.resolve(String.format("snapshot-%020d.bin", seq));
+        Path temp = dir.resolve(target.getFileName() + ".tmp");
+        CRC32C crc = new CRC32C();
+        try (OutputStream file = Files.newOutputStream(temp);
+             CheckedOutputStream checked = new CheckedOutputStream(new BufferedOutputStream(file), crc);
+             DataOutputStream out = new DataOutputStream(checked)) {
+            out.writeInt(SNAPSHOT_MAGIC);
+            out.writeInt(SNAPSHOT_VERSION);
+            out.writeLong(seq);
+            out.writeInt(maxId);
+            out.writeInt(products.size());
+            for (ProductActivity product : products) {
+                out.writeInt(product.getProductId());
+                out.writeInt(product.getBidCount());
+                out.writeLong(product.getLastBidTime() == null ? Long.MIN_VALUE : toMicros(product.getLastBidTime()));
+                Bid leader = product.getLeader();
+                out.writeBoolean(leader != null);
+                if (leader != null) {
+                    out.writeInt(leader.getId());
+                    out.writeUTF(leader.getBuyerEmail());
+                    out.writeDouble(leader.getBidAmount());
+                    out.writeLong(toMicros(leader.getBidTime()));
+                }
+            }
+            out.flush();
+            // The checksum covers everything before it
+            new DataOutputStream(file).writeInt((int) crc.getValue());
+        }
+        Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+    }
+
+    private void readSnapshot(Path path) throws IOException {
+        CRC32C crc = new CRC32C();
+        try (InputStream file = new BufferedInputStream(Files.newInputStream(path));
+             DataInputStream in = new DataInputStream(new CheckedInputStream(file, crc))) {
+            if (in.readInt() != SNAPSHOT_MAGIC || in.readInt() != SNAPSHOT_VERSION) {
+                throw new IOException("not a bid journal snapshot");
+            }
+            long seq = in.readLong();
+            int maxId = in.readInt();
+            int count = in.readInt();
+            List<ProductActivity> products = new ArrayList<>(count);
+            for (int i = 0; i < count; i++) {
+                int productId = in.readInt();
+                int bidCount = in.readInt();
+                long lastBidTime = in.readLong();
+                Bid leader = null;
+                if (in.readBoolean()) {
+                    leader = new Bid();
+                    leader.setId(in.readInt());
+                    leader.setProductId(productId);
+                    leader.setBuyerEmail(in.readUTF());
+                    leader.setBidAmount(in.readDouble());
+                    leader.setBidTime(fromMicros(in.readLong()));
+                }
+                products.add(new ProductActivity(productId, bidCount,
+                    lastBidTime == Long.MIN_VALUE ? null : fromMicros(lastBidTime), leader));
+            }
+            int expected = (int) crc.getValue();
+            if (new DataInputStream(file).readInt() != expected) {
+                throw new IOException("checksum mismatch");
+            }
+            for (ProductActivity product : products) {
+                activity.put(product.getProductId(), product);
+            }
+            lastSeq = seq;
+            maxBidId = maxId;
+        }
+    }
+
+    // Journal files with the given prefix and suffix, newest (highest sequence) first
+    private List<Path> list(String prefix, String suffix) throws IOException {
+        try (Stream<Path> files = Files.list(dir)) {
+            return files
+                .filter(p -> p.getFileName().toString().startsWith(prefix) && p.getFileName().toString().endsWith(suffix))
+                .sorted(Comparator.comparing((Path p) -> p.getFileName().toString()).reversed())
+                .toList();
+        }
+    }
+
+    private Path segmentPath(long firstSeq) {
+        return dir.resolve(String.format("bids-%020d.log", firstSeq));
+    }
+
+    private static long parseSeq(Path path, String prefix) {
+        String name = path.getFileName().toString();
+        return Long.parseLong(name.substring(prefix.length(), name.indexOf('.')));
+    }
+
+    private static long toMicros(LocalDateTime time) {
+        return time.toEpochSecond(ZoneOffset.UTC) * 1_000_000 + time.getNano() / 1_000;
+    }
+
+    private static LocalDateTime fromMicros(long micros) {
+        return LocalDateTime.ofEpochSecond(Math.floorDiv(micros, 1_000_000),
+            (int) Math.floorMod(micros, 1_000_000) * 1_000, ZoneOffset.UTC);
+    }
+}
@@ -1,22 +1,47 @@
 package klu.model;
 
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.web.PagedModel;
+import org.springframework.scheduling.annotation.Async;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
 
 import klu.repo.BidRepository;
-import klu.repo.WalletRepository;
+import klu.repo.ProxyBidRepository;
 
 import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ConcurrentLinkedDeque;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.TimeoutException;
 
 @Service
 public class BidManager {
 
+    private static final Logger logger = LoggerFactory.getLogger(BidManager.class);
+
     @Autowired
     private BidRepository bidRepo;
 
     @Autowired
-    private WalletRepository walletRepo;
+    private WalletManager walletManager;
 
     @Autowired
     private NotificationManager notificationManager;
@@ -24,63 +49,460 @@ public class BidManager {
     @Autowired
     private ProductManager productManager;
 
+    @Autowired
+    private BidBook bidBook;
+
+    @Autowired
+    private BidSequencer bidSequencer;
+
+    @Autowired
+    private BidWriter bidWriter;
+
+    @Autowired
+    private BidStream bidStream;
+
+    @Autowired
+    private BidJournal bidJournal;
+
+    @Autowired
+    private ProxyBidRepository proxyRepo;
+
+    // Resolutions per product, oldest first, whose writes have not committed yet
+    private final ConcurrentHashMap<Integer, Deque<Resolution>> uncommitted = new ConcurrentHashMap<>();
+
+    @Value("${auction.bid.increment:1.00}")
+    private double increment;
+
+    @Value("${auction.bid.commit-timeout-ms:5000}")
+    private long commitTimeoutMs;
+
+    @Value("${auction.bid.history-page-size:20}")
+    private int historyPageSize;
+
+    @Value("${auction.bid.history-max-page-size:100}")
+    private int historyMaxPageSize;
+
     public String placeBid(Bid bid) {
-        double balance = walletRepo.getBalanceByEmail(bid.getBuyerEmail());
+        // Bids on the same product are applied one at a time so only one bidder can take the lead.
+        // The lock is released before waiting for the group commit so the next bid can be sequenced.
+        CompletableFuture<String> result = bidSequencer.execute(bid.getProductId(), () -> applyBid(bid));
+        return await(result, bid.getProductId(), "bid");
+    }
 
-        if (balance < bid.getBidAmount()) {
-            return "403::Insufficient Wallet Balance";
-        }
+    // Registers or replaces the buyer's "bid up to maxAmount" instruction on a product
+    public String placeProxyBid(ProxyBid request) {
+        CompletableFuture<String> result = bidSequencer.execute(request.getProductId(), () -> applyProxyBid(request));
+        return await(result, request.getProductId(), "automatic bid");
+    }
 
-        // Get current highest bid before placing new bid
-        Bid previousHighestBid = getHighestBid(bid.getProductId());
-        String previousHighestBidder = previousHighestBid != null ? previousHighestBid.getBuyerEmail() : null;
+    private String await(CompletableFuture<String> result, int productId, String kind) {
+        try {
+            return result.get(commitTimeoutMs, TimeUnit.MILLISECONDS);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            return "500::Bid interrupted";
+        } catch (ExecutionException e) {
+            logger.error("Error placing {} on product {}: ", kind, productId, e);
+            return "500::Error placing bid";
+        } catch (TimeoutException e) {
+            // The write is still queued and may yet commit, so this is not a failure
+            logger.warn("Commit of {} on product {} still pending after {} ms", kind, productId, commitTimeoutMs);
+            return "202::Bid received and still being saved; check the highest bid for product " + productId;
+        }
+    }
 
-        bid.setBidTime(LocalDateTime.now());
-        bidRepo.save(bid);
+    private CompletableFuture<String> applyBid(Bid bid) {
+        // Reject non-competitive bids from the in-memory book before touching the database
+        if (!bidBook.isCompetitive(bid.getProductId(), bid.getBidAmount())) {
+            return CompletableFuture.completedFuture("400::Bid must be higher than the current highest bid");
+        }
 
-        // Get new highest bid after placing
-        Bid newHighestBid = getHighestBid(bid.getProductId());
-        
-        // Get product name for notification
         Product product = productManager.getProductById(bid.getProductId());
-        String productName = product != null ? product.getName() : "Product #" + bid.getProductId();
-
-        // Notify previous highest bidder if they were outbid
-        if (previousHighestBid != null && 
-            previousHighestBidder != null && 
-            !previousHighestBidder.equals(bid.getBuyerEmail()) &&
-            newHighestBid != null && 
-            newHighestBid.getId() == bid.getId()) {
-            
-            // Previous bidder was outbid
-            notificationManager.createNotification(
-                previousHighestBidder,
-                "You've been outbid on '" + productName + "'. Current highest bid: $" + String.format("%.2f", bid.getBidAmount()),
-                "OUTBID",
-                bid.getProductId()
-            );
+        if (product != null && AuctionCloseScheduler.isClosed(product)) {
+            return CompletableFuture.completedFuture("400::Auction has ended");
+        }
+        // The opening bid starts at the product's price, as for automatic bids
+        if (product != null && bidBook.getLeader(bid.getProductId()) == null && bid.getBidAmount() < product.getPrice()) {
+            return CompletableFuture.completedFuture("400::Bid must be at least the starting price");
+        }
+
+        // A bid must be covered by the bidder's free funds even if a proxy ends up outbidding it
+        if (walletManager.getAvailableFor(bid.getBuyerEmail(), bid.getProductId()) < bid.getBidAmount()) {
+            return CompletableFuture.completedFuture("403::Insufficient Wallet Balance");
+        }
+
+        return resolve(bid.getProductId(), product, bid, null);
+    }
+
+    private CompletableFuture<String> applyProxyBid(ProxyBid request) {
+        int productId = request.getProductId();
+        Product product = productManager.getProductById(productId);
+        if (product == null) {
+            return CompletableFuture.completedFuture("404::Product Not Found");
+        }
+        if (AuctionCloseScheduler.isClosed(product)) {
+            return CompletableFuture.completedFuture("400::Auction has ended");
+        }
+
+        Bid leader = bidBook.getLeader(productId);
+        String email = request.getBuyerEmail();
+        boolean leading = leader != null && leader.getBuyerEmail().equals(email);
+        if (leader == null ? request.getMaxAmount() < product.getPrice() : request.getMaxAmount() <= leader.getBidAmount()) {
+            return CompletableFuture.completedFuture("400::Maximum bid must be higher than the current highest bid");
+        }
+
+        // The proxy has to be able to make at least its first bid
+        double firstBid = leader == null ? product.getPrice()
+            : leading ? leader.getBidAmount()
+            : Math.min(request.getMaxAmount(), roundCents(leader.getBidAmount() + increment));
+        if (walletManager.getAvailableFor(email, productId) < firstBid) {
+            return CompletableFuture.completedFuture("403::Insufficient Wallet Balance");
+        }
+
+        // A buyer has at most one proxy per product; a new one keeps the old row and its queue position
+        Map<String, ProxyBid> proxies = bidBook.getProxies(productId);
+        ProxyBid existing = proxies.get(email);
+        ProxyBid proxy = new ProxyBid();
+        proxy.setProductId(productId);
+        proxy.setBuyerEmail(email);
+        proxy.setMaxAmount(request.getMaxAmount());
+        proxy.setActive(true);
+        if (existing != null) {
+            proxy.setId(existing.getId());
+            proxy.setCreatedAt(existing.getCreatedAt());
+        } else {
+            proxy.setCreatedAt(LocalDateTime.now());
+        }
+
+        Map<String, ProxyBid> snapshot = new LinkedHashMap<>(proxies);
+        bidBook.putProxy(proxy);
+        return resolve(productId, product, null, snapshot, proxy);
+    }
+
+    private CompletableFuture<String> resolve(int productId, Product product, Bid manual, ProxyBid registered) {
+        return resolve(productId, product, manual, new LinkedHashMap<>(bidBook.getProxies(productId)), registered);
+    }
+
+    // Settles the current leader, every active proxy and an optional new manual bid in one step,
+    // with the result an ascending bidding war would reach: the highest ceiling wins at one increment
+    // over the runner-up. Only the final state is written. Runs under the product lock.
+    private CompletableFuture<String> resolve(int productId, Product product, Bid manual,
+                                              Map<String, ProxyBid> snapshot, ProxyBid registered) {
+        String productName = product != null ? product.getName() : "Product #" + productId;
+        double openingPrice = product != null ? product.getPrice() : 0;
+        Bid previous = bidBook.getLeader(productId);
+        Map<String, ProxyBid> proxies = bidBook.getProxies(productId);
+
+        Set<String> unfunded = new HashSet<>();
+        Contender winner;
+        double price;
+        while (true) {
+            // Insertion order is the tie-break: the leader, then proxies by age, then the new bid
+            Map<String, Contender> contenders = new LinkedHashMap<>();
+            if (previous != null) {
+                contenders.put(previous.getBuyerEmail(), new Contender(previous.getBuyerEmail(), previous.getBidAmount()));
+            }
+            for (ProxyBid proxy : proxies.values()) {
+                if (unfunded.contains(proxy.getBuyerEmail())) {
+                    continue;
+                }
+                double ceiling = Math.min(proxy.getMaxAmount(),
+                    walletManager.getAvailableFor(proxy.getBuyerEmail(), productId));
+                Contender contender = contenders.computeIfAbsent(proxy.getBuyerEmail(), e -> new Contender(e, 0));
+                contender.proxy = proxy;
+                contender.ceiling = Math.max(contender.ceiling, ceiling);
+            }
+            if (manual != null) {
+                Contender contender = contenders.computeIfAbsent(manual.getBuyerEmail(), e -> new Contender(e, 0));
+                contender.manual = true;
+                contender.ceiling = Math.max(contender.ceiling, manual.getBidAmount());
+            }
+
+            winner = null;
+            double runnerUp = -1;
+            for (Contender contender : contenders.values()) {
+                if (winner == null || contender.ceiling > winner.ceiling) {
+                    if (winner != null) {
+                        runnerUp = Math.max(runnerUp, winner.ceiling);
+                    }
+                    winner = contender;
+                } else {
+                    runnerUp = Math.max(runnerUp, contender.ceiling);
+                }
+            }
+            if (winner == null) {
+                bidBook.restoreProxies(productId, snapshot);
+                return CompletableFuture.completedFuture("403::Insufficient Wallet Balance");
+            }
+
+            double floor = previous == null ? openingPrice
+                : previous.getBuyerEmail().equals(winner.email) ? previous.getBidAmount()
+                : roundCents(previous.getBidAmount() + increment);
+            if (winner.manual) {
+                floor = Math.max(floor, manual.getBidAmount());
+            }
+            price = runnerUp < 0 ? floor : Math.max(floor, roundCents(runnerUp + increment));
+            price = Math.min(price, winner.ceiling);
+
+            // A leading bid holds its amount in the bidder's wallet, on top of their other leading bids
+            if (walletManager.tryReserve(winner.email, productId, price)) {
+                break;
+            }
+            if (winner.proxy == null) {
+                bidBook.restoreProxies(productId, snapshot);
+                return CompletableFuture.completedFuture("403::Insufficient Wallet Balance");
+            }
+            unfunded.add(winner.email);
+        }
+
+        boolean leaderChanged = previous == null || !previous.getBuyerEmail().equals(winner.email);
+        if (leaderChanged && previous != null) {
+            walletManager.release(previous.getBuyerEmail(), productId);
+        }
+
+        LocalDateTime now = LocalDateTime.now();
+        List<Bid> rows = new ArrayList<>(2);
+        Bid leaderRow = null;
+        if (manual != null) {
+            manual.setBidTime(now);
+            rows.add(manual);
+            if (winner.manual && price == manual.getBidAmount()) {
+                leaderRow = manual;
+            }
+        }
+        if (leaderRow == null && (leaderChanged || price != previous.getBidAmount())) {
+            leaderRow = new Bid();
+            leaderRow.setProductId(productId);
+            leaderRow.setBuyerEmail(winner.email);
+            leaderRow.setBidAmount(price);
+            leaderRow.setBidTime(now);
+            rows.add(leaderRow);
+        }
+
+        // Proxies that can no longer beat the price are finished
+        List<ProxyBid> proxyWrites = new ArrayList<>();
+        if (registered != null) {
+            proxyWrites.add(registered);
+        }
+        for (ProxyBid proxy : List.copyOf(proxies.values())) {
+            boolean outbid = !proxy.getBuyerEmail().equals(winner.email) && proxy.getMaxAmount() <= price;
+            if (outbid || unfunded.contains(proxy.getBuyerEmail())) {
+                bidBook.removeProxy(productId, proxy.getBuyerEmail());
+                proxy.setActive(false);
+                if (proxy != registered) {
+                    proxyWrites.add(proxy);
+                }
+            }
+        }
+
+        // Outbox events only; the messages are written by NotificationDispatcher after commit
+        List<NotificationEvent> events = new ArrayList<>(3);
+        if (leaderChanged && previous != null) {
+            events.add(notificationManager.buildEvent(
+                previous.getBuyerEmail(), "OUTBID", productId, productName, price, null));
+        }
+        if (manual != null && !winner.manual) {
+            events.add(notificationManager.buildEvent(
+                manual.getBuyerEmail(), "OUTBID", productId, productName, price, manual.getBidAmount()));
+        }
+        if (leaderRow != null) {
+            events.add(notificationManager.buildEvent(
+                winner.email, "WINNING_BID", productId, productName, price, null));
         }
 
-        // Notify new bidder if they now have the winning bid
-        if (newHighestBid != null && newHighestBid.getId() == bid.getId()) {
+        String result;
+        if (registered != null) {
+            result = registered.isActive()
+                ? "200::Automatic bid set up to $" + String.format("%.2f", registered.getMaxAmount())
+                : "200::Automatic bid was outbid at $" + String.format("%.2f", price);
+        } else {
+            result = winner.manual ? "200::Bid Placed Successfully"
+                : "200::Bid placed, but you were outbid by an automatic bid";
+        }
+        if (rows.isEmpty() && proxyWrites.isEmpty()) {
+            return CompletableFuture.completedFuture(result);
+        }
+
+        // The book is updated before the write so the next sequenced bid sees this one;
+        // it is rolled back if the batch containing these rows fails to commit
+        if (leaderRow != null) {
+            bidBook.setLeader(leaderRow);
+        }
+        Bid newLeader = leaderRow;
+        Resolution resolution = new Resolution(previous, snapshot,
+            bidWriter.submit(rows, newLeader, events, proxyWrites));
+        Deque<Resolution> pending = uncommitted.computeIfAbsent(productId, id -> new ConcurrentLinkedDeque<>());
+        pending.addLast(resolution);
+        return resolution.write()
+            .handle((saved, error) -> {
+                if (error != null) {
+                    bidSequencer.execute(productId, () -> rollback(productId, resolution));
+                    logger.error("Bid on product {} was not committed: {}", productId, error.toString());
+                    return "500::Error placing bid";
+                }
+                pending.remove(resolution);
+                for (Bid row : rows) {
+                    bidStream.publishBid(row, row == newLeader);
+                }
+                return result;
+            });
+    }
+
+    // Undoes a failed resolution together with every later one on the product, newest first, so
+    // the leader, proxies and holds go back to what they were before it. The later ones were built
+    // on the failed state: writes of theirs still queued are cancelled, the rest failed in the same
+    // batch. Runs under the product lock.
+    private boolean rollback(int productId, Resolution failed) {
+        Deque<Resolution> pending = uncommitted.get(productId);
+        if (pending == null || !pending.contains(failed)) {
+            return false; // already undone along with an earlier resolution
+        }
+        Resolution undone;
+        do {
+            undone = pending.pollLast();
+            undone.write().cancel(false);
+        } while (undone != failed);
+
+        Bid current = bidBook.getLeader(productId);
+        Bid previous = failed.previous();
+        if (current != previous) {
+            // A leading bid's hold is exactly its amount, so the holds follow the leader
+            if (current != null) {
+                walletManager.release(current.getBuyerEmail(), productId);
+            }
+            if (previous != null) {
+                walletManager.restoreHold(previous.getBuyerEmail(), productId, previous.getBidAmount());
+            }
+            bidBook.restoreLeader(productId, previous);
+        }
+        for (ProxyBid proxy : failed.snapshot().values()) {
+            proxy.setActive(true);
+        }
+        bidBook.restoreProxies(productId, failed.snapshot());
+        return true;
+    }
+
+    private static double roundCents(double amount) {
+        return Math.round(amount * 100) / 100.0;
+    }
+
+    // State before a resolution whose write has not committed yet, and that write
+    private record Resolution(Bid previous, Map<String, ProxyBid> snapshot, CompletableFuture<Void> write) {}
+
+    // One buyer in a resolution and the most they will bid right now
+    private static final class Contender {
+        final String email;
+        double ceiling;
+        ProxyBid proxy;
+        boolean manual;
+
+        Contender(String email, double ceiling) {
+            this.email = email;
+            this.ceiling = ceiling;
+        }
+    }
+
+    // Announces the result once the close scheduler ends an auction
+    @Async
+    @EventListener
+    public void onAuctionClosed(AuctionClosedEvent event) {
+        int productId = event.getProductId();
+        Product product = productManager.getProductById(productId);
+        if (product == null || !AuctionCloseScheduler.isClosed(product)) {
+            return; // deleted or extended since it was scheduled
+        }
+        if (Boolean.TRUE.equals(product.getClosed())) {
+            return; // already announced
+        }
+        // Read the final leader under the product lock so no bid is still being sequenced
+        Bid winner = bidSequencer.execute(productId, () -> {
+            bidBook.clearProxies(productId);
+            return bidBook.getLeader(productId);
+        });
+        proxyRepo.deactivateByProductId(productId);
+
+        if (winner != null) {
             notificationManager.createNotification(
-                bid.getBuyerEmail(),
-                "Congratulations! You have the winning bid on '" + productName + "' with $" + String.format("%.2f", bid.getBidAmount()),
-                "WINNING_BID",
-                bid.getProductId()
+                winner.getBuyerEmail(),
+                "You won the auction for '" + product.getName() + "' with $" + String.format("%.2f", winner.getBidAmount()) + ". Place your order from My Bids.",
+                "AUCTION_WON",
+                productId
             );
         }
-
-        return "200::Bid Placed Successfully";
+        notificationManager.createNotification(
+            product.getSellerEmail(),
+            winner != null
+                ? "Your auction for '" + product.getName() + "' ended with a winning bid of $" + String.format("%.2f", winner.getBidAmount())
+                : "Your auction for '" + product.getName() + "' ended with no bids",
+            "AUCTION_ENDED",
+            productId
+        );
+        bidStream.publishClosed(productId, winner);
+        productManager.markClosed(product);
+        logger.info("Auction closed for product {}", productId);
     }
 
+    @Transactional(readOnly = true)
     public List<Bid> getBidsForProduct(int productId) {
         return bidRepo.findByProductId(productId);
     }
 
+    // Newest-first bid history; the cursor is "<bidTime>_<id>" of the last entry of the previous page
+    public BidHistoryPage getBidHistory(int productId, String cursor, Integer size) {
+        int pageSize = size == null ? historyPageSize : Math.min(Math.max(size, 1), historyMaxPageSize);
+        // Fetch one extra row to know whether an older page exists
+        Limit limit = Limit.of(pageSize + 1);
+
+        List<BidHistoryEntry> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = bidRepo.findHistory(productId, limit);
+        } else {
+            LocalDateTime bidTime;
+            int id;
+            try {
+                int split = cursor.lastIndexOf('_');
+                bidTime = LocalDateTime.parse(cursor.substring(0, split));
+                id = Integer.parseInt(cursor.substring(split + 1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            rows = bidRepo.findHistoryBefore(productId, bidTime, id, limit);
+        }
+
+        if (rows.size() <= pageSize) {
+            return new BidHistoryPage(rows, null);
+        }
+        List<BidHistoryEntry> items = rows.subList(0, pageSize);
+        BidHistoryEntry last = items.get(pageSize - 1);
+        return new BidHistoryPage(items, last.getBidTime() + "_" + last.getId());
+    }
+
     public Bid getHighestBid(int productId) {
-        List<Bid> bids = bidRepo.findHighestBidByProductId(productId);
-        if (bids.isEmpty()) return null;
-        return bids.get(0);
+        return bidBook.getLeader(productId);
+    }
+
+    // Committed bid count, last bid time and leader, kept by the bid journal
+    public ProductActivity getActivity(int productId) {
+        ProductActivity activity = bidJournal.getActivity(productId);
+        return activity != null ? activity : new ProductActivity(productId, 0, null, null);
+    }
+
+    // Products the buyer has bid on with their best bid and the current leader, one page at a time
+    public PagedModel<MyBid> getMyBids(String email, int page, int size) {
+        Page<BuyerBidSummary> summaries = bidRepo.findBidSummariesByBuyerEmail(
+            email, PageRequest.of(Math.max(page, 0), Math.min(Math.max(size, 1), 100)));
+        Map<Integer, Product> products = productManager.getProductsByIds(
+            summaries.map(BuyerBidSummary::getProductId).getContent());
+
+        return new PagedModel<>(summaries.map(summary -> {
+            Bid leader = bidBook.getLeader(summary.getProductId());
+            boolean leading = leader != null && email.equals(leader.getBuyerEmail());
+            return new MyBid(products.get(summary.getProductId()), summary.getBestAmount(),
+                summary.getLastBidTime(), leader, leading);
+        }));
+    }
+
+    public SseEmitter streamBids(int productId) {
+        return bidStream.subscribe(productId, bidBook.getLeader(productId));
     }
 }
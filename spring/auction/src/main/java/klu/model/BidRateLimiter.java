@@ -0,0 +1,74 @@
+package klu.model;
+
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+// Per-buyer token bucket in front of /bid/place. Each bucket is one AtomicLong holding the
+// "theoretical arrival time" of the next request (GCRA), which is equivalent to a token bucket
+// of size burst refilled at refillPerSecond, and is updated with a single CAS.
+@Component
+public class BidRateLimiter {
+
+    @Value("${auction.bid.rate-limit.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auction.bid.rate-limit.burst:10}")
+    private int burst;
+
+    @Value("${auction.bid.rate-limit.refill-per-second:5}")
+    private double refillPerSecond;
+
+    private final ConcurrentHashMap<String, AtomicLong> buckets = new ConcurrentHashMap<>();
+    private long emissionIntervalNanos;
+    private long burstToleranceNanos;
+
+    @PostConstruct
+    public void init() {
+        emissionIntervalNanos = (long) (TimeUnit.SECONDS.toNanos(1) / refillPerSecond);
+        burstToleranceNanos = emissionIntervalNanos * burst;
+    }
+
+    // Returns 0 if the request may proceed, otherwise how long to wait in nanoseconds
+    public long tryAcquire(String buyer) {
+        if (!enabled) {
+            return 0;
+        }
+        AtomicLong bucket = buckets.computeIfAbsent(buyer == null ? "" : buyer, k -> new AtomicLong(Long.MIN_VALUE));
+        while (true) {
+            long now = System.nanoTime();
+            long tat = bucket.get();
+            long start = tat == Long.MIN_VALUE || tat - now < 0 ? now : tat;
+            long next = start + emissionIntervalNanos;
+            long wait = next - burstToleranceNanos - now;
+            if (wait > 0) {
+                return wait;
+            }
+            if (bucket.compareAndSet(tat, next)) {
+                return 0;
+            }
+        }
+    }
+
+    // A bucket whose arrival time has passed is full again and identical to a new one
+    @Scheduled(fixedDelayString = "${auction.bid.rate-limit.evict-interval-ms:60000}")
+    public void evictIdleBuckets() {
+        long now = System.nanoTime();
+        buckets.forEach((buyer, bucket) -> {
+            long tat = bucket.get();
+            if (tat == Long.MIN_VALUE || tat - now < 0) {
+                buckets.remove(buyer, bucket);
+            }
+        });
+    }
+
+    public int getTrackedBuyers() {
+        return buckets.size();
+    }
+}
@@ -0,0 +1,47 @@
+package klu.model;
+
+import java.util.concurrent.locks.ReentrantLock;
+import java.util.function.Supplier;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+
+// Serializes bids per product with striped locks; unrelated products run in parallel
+@Component
+public class BidSequencer {
+
+    @Value("${auction.bid.lock-stripes:0}")
+    private int configuredStripes;
+
+    private ReentrantLock[] stripes;
+    private int mask;
+
+    @PostConstruct
+    public void init() {
+        int wanted = configuredStripes > 0 ? configuredStripes : Runtime.getRuntime().availableProcessors() * 64;
+        int size = Integer.highestOneBit(Math.max(wanted - 1, 1)) << 1; // next power of two
+        stripes = new ReentrantLock[size];
+        for (int i = 0; i < size; i++) {
+            stripes[i] = new ReentrantLock();
+        }
+        mask = size - 1;
+    }
+
+    public <T> T execute(int productId, Supplier<T> action) {
+        ReentrantLock lock = stripeFor(productId);
+        lock.lock();
+        try {
+            return action.get();
+        } finally {
+            lock.unlock();
+        }
+    }
+
+    private ReentrantLock stripeFor(int productId) {
+        // Fibonacci hashing spreads sequential product ids across stripes
+        int h = productId * 0x9E3779B9;
+        return stripes[(h ^ (h >>> 16)) & mask];
+    }
+}
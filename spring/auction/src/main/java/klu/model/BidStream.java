@@ -0,0 +1,244 @@
+package klu.model;
+
+import java.io.IOException;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.SynchronousQueue;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseBodyEmitter.DataWithMediaType;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Pushes live bid events to product pages over Server-Sent Events.
+// Each event is serialized once and the same payload is queued to every subscriber;
+// a subscriber whose queue overflows is treated as a slow consumer and disconnected.
+// Sends are blocking writes, so a subscriber whose send has not returned within
+// stream-send-timeout-ms is disconnected as well, and the delivery pool grows past its core
+// size rather than letting a few stalled sockets hold up every other subscriber.
+@Component
+public class BidStream {
+
+    private static final Logger logger = LoggerFactory.getLogger(BidStream.class);
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${auction.bid.stream-buffer:32}")
+    private int bufferSize;
+
+    @Value("${auction.bid.stream-timeout-ms:1800000}")
+    private long streamTimeoutMs;
+
+    @Value("${auction.bid.stream-send-timeout-ms:5000}")
+    private long sendTimeoutMs;
+
+    @Value("${auction.bid.stream-max-threads:200}")
+    private int maxThreads;
+
+    private final ConcurrentHashMap<Integer, Set<Subscriber>> subscribers = new ConcurrentHashMap<>();
+    private final Set<DataWithMediaType> heartbeat = SseEmitter.event().comment("ping").build();
+    private ThreadPoolExecutor deliveryPool;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        // Threads past the core size are only started while others are blocked in a send
+        int core = Math.max(2, Runtime.getRuntime().availableProcessors());
+        deliveryPool = new ThreadPoolExecutor(core, Math.max(core, maxThreads), 60, TimeUnit.SECONDS,
+            new SynchronousQueue<>(), r -> {
+                Thread t = new Thread(r, "bid-stream-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                return t;
+            });
+    }
+
+    @PreDestroy
+    public void stop() {
+        subscribers.values().forEach(set -> set.forEach(Subscriber::close));
+        deliveryPool.shutdownNow();
+    }
+
+    public SseEmitter subscribe(int productId, Bid currentLeader) {
+        SseEmitter emitter = new SseEmitter(streamTimeoutMs);
+        Subscriber subscriber = new Subscriber(productId, emitter);
+        emitter.onCompletion(() -> remove(subscriber));
+        emitter.onTimeout(() -> remove(subscriber));
+        emitter.onError(e -> remove(subscriber));
+
+        subscribers.computeIfAbsent(productId, id -> ConcurrentHashMap.newKeySet()).add(subscriber);
+        if (currentLeader != null) {
+            subscriber.enqueue(event("highest", currentLeader));
+        }
+        return emitter;
+    }
+
+    public void publishBid(Bid bid, boolean newLeader) {
+        Set<Subscriber> audience = subscribers.get(bid.getProductId());
+        if (audience == null || audience.isEmpty()) {
+            return;
+        }
+        Set<DataWithMediaType> bidEvent = event("bid", BidHistoryEntry.of(bid));
+        Set<DataWithMediaType> highestEvent = newLeader ? event("highest", bid) : null;
+        for (Subscriber subscriber : audience) {
+            subscriber.enqueue(bidEvent);
+            if (highestEvent != null) {
+                subscriber.enqueue(highestEvent);
+            }
+        }
+    }
+
+    public void publishClosed(int productId, Bid winner) {
+        Set<Subscriber> audience = subscribers.get(productId);
+        if (audience == null || audience.isEmpty()) {
+            return;
+        }
+        Set<DataWithMediaType> closedEvent = event("closed", winner != null ? BidHistoryEntry.of(winner) : Map.of());
+        for (Subscriber subscriber : audience) {
+            subscriber.enqueue(closedEvent);
+        }
+    }
+
+    public int getSubscriberCount() {
+        return subscribers.values().stream().mapToInt(Set::size).sum();
+    }
+
+    // Keeps idle connections open through proxies and flushes out dead clients
+    @Scheduled(fixedDelayString = "${auction.bid.stream-heartbeat-ms:20000}")
+    public void sendHeartbeats() {
+        subscribers.values().forEach(set -> set.forEach(s -> s.enqueue(heartbeat)));
+    }
+
+    // A client that stopped reading blocks its send until the container's write timeout; it is
+    // dropped well before that, and its thread is released when the write finally fails
+    @Scheduled(fixedDelayString = "${auction.bid.stream-send-check-ms:1000}")
+    public void evictStalledSends() {
+        long now = System.nanoTime();
+        long limit = TimeUnit.MILLISECONDS.toNanos(sendTimeoutMs);
+        subscribers.values().forEach(set -> set.forEach(s -> {
+            long started = s.sendStarted;
+            if (started != 0 && now - started > limit) {
+                logger.warn("Disconnecting bid stream subscriber on product {}: send stalled for over {} ms",
+                    s.productId, sendTimeoutMs);
+                s.close();
+            }
+        }));
+    }
+
+    private Set<DataWithMediaType> event(String name, Object payload) {
+        try {
+            String json = objectMapper.writeValueAsString(payload);
+            return SseEmitter.event().name(name).data(json, MediaType.APPLICATION_JSON).build();
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize " + name + " event", e);
+        }
+    }
+
+    private void remove(Subscriber subscriber) {
+        subscriber.closed = true;
+        subscribers.computeIfPresent(subscriber.productId, (id, set) -> {
+            set.remove(subscriber);
+            return set.isEmpty() ? null : set;
+        });
+    }
+
+    private final class Subscriber implements Runnable {
+        final int productId;
+        final SseEmitter emitter;
+        final ArrayBlockingQueue<Set<DataWithMediaType>> pending = new ArrayBlockingQueue<>(bufferSize);
+        final AtomicBoolean scheduled = new AtomicBoolean();
+        volatile boolean closed;
+        // System.nanoTime() when the send in progress began, 0 when none is
+        volatile long sendStarted;
+
+        Subscriber(int productId, SseEmitter emitter) {
+            this.productId = productId;
+            this.emitter = emitter;
+        }
+
+        void enqueue(Set<DataWithMediaType> payload) {
+            if (closed) {
+                return;
+            }
+            if (!pending.offer(payload)) {
+                logger.warn("Disconnecting slow bid stream subscriber on product {}", productId);
+                close();
+                return;
+            }
+            schedule();
+        }
+
+        @Override
+        public void run() {
+            try {
+                Set<DataWithMediaType> next;
+                while (!closed && (next = pending.poll()) != null) {
+                    sendStarted = System.nanoTime();
+                    emitter.send(next);
+                    sendStarted = 0;
+                }
+            } catch (IOException | IllegalStateException e) {
+                remove(this);
+                return;
+            } finally {
+                sendStarted = 0;
+                scheduled.set(false);
+            }
+            if (closed) {
+                emitter.complete();
+                return;
+            }
+            // An event may have arrived between the last poll and clearing the flag
+            if (!pending.isEmpty()) {
+                schedule();
+            }
+        }
+
+        // Completing the emitter is left to the delivery task: a send in progress may be stalled,
+        // and the caller (the bid writer, the scheduler) must not wait for it
+        void close() {
+            remove(this);
+            pending.clear();
+            schedule();
+        }
+
+        private void schedule() {
+            if (!scheduled.compareAndSet(false, true)) {
+                return;
+            }
+            try {
+                deliveryPool.execute(this);
+            } catch (RejectedExecutionException e) {
+                // Every delivery thread is blocked in a send, or the application is stopping. No send
+                // of this subscriber is in progress (it was not scheduled), so the connection is
+                // ended here and the client's EventSource reconnects
+                scheduled.set(false);
+                remove(this);
+                pending.clear();
+                try {
+                    emitter.complete();
+                } catch (RuntimeException completeFailed) {
+                    logger.debug("Could not complete bid stream on product {}", productId, completeFailed);
+                }
+            }
+        }
+    }
+}
@@ -0,0 +1,196 @@
+package klu.model;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.convert.DurationStyle;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import klu.repo.BidRepository;
+import klu.repo.NotificationEventRepository;
+import klu.repo.ProxyBidRepository;
+
+// Group commit: accepted bids, their notification events (outbox rows) and proxy changes are collected for a short window
+// and written in one JDBC batch inside one transaction
+@Component
+public class BidWriter {
+
+    private static final Logger logger = LoggerFactory.getLogger(BidWriter.class);
+
+    @Autowired
+    private BidRepository bidRepo;
+
+    @Autowired
+    private NotificationEventRepository eventRepo;
+
+    @Autowired
+    private NotificationDispatcher dispatcher;
+
+    @Autowired
+    private ProxyBidRepository proxyRepo;
+
+    @Autowired
+    private BidJournal journal;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${auction.bid.commit-window:2ms}")
+    private String commitWindow;
+
+    @Value("${auction.bid.commit-max-batch:256}")
+    private int maxBatch;
+
+    @Value("${auction.bid.commit-queue-capacity:10000}")
+    private int queueCapacity;
+
+    private BlockingQueue<PendingWrite> queue;
+    private TransactionTemplate transactionTemplate;
+    private long windowNanos;
+    private Thread flusher;
+    private volatile boolean running;
+
+    private static class PendingWrite {
+        final List<Bid> bids;
+        final Bid leader;
+        final List<NotificationEvent> events;
+        final List<ProxyBid> proxies;
+        final CompletableFuture<Void> done = new CompletableFuture<>();
+
+        PendingWrite(List<Bid> bids, Bid leader, List<NotificationEvent> events, List<ProxyBid> proxies) {
+            this.bids = bids;
+            this.leader = leader;
+            this.events = events;
+            this.proxies = proxies;
+        }
+    }
+
+    @PostConstruct
+    public void start() {
+        windowNanos = DurationStyle.detectAndParse(commitWindow).toNanos();
+        queue = new LinkedBlockingQueue<>(queueCapacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        running = true;
+        flusher = new Thread(this::run, "bid-writer");
+        flusher.setDaemon(true);
+        flusher.start();
+        logger.info("Bid writer started with a {} commit window, batches of up to {}",
+            Duration.ofNanos(windowNanos), maxBatch);
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        flusher.interrupt();
+        flusher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    // leader is the row among bids that took the lead, or null if the leader did not change
+    public CompletableFuture<Void> submit(List<Bid> bids, Bid leader, List<NotificationEvent> events,
+                                          List<ProxyBid> proxies) {
+        PendingWrite write = new PendingWrite(bids, leader, events, proxies);
+        if (!running || !queue.offer(write)) {
+            write.done.completeExceptionally(new RejectedExecutionException("Bid write queue is full"));
+        }
+        return write.done;
+    }
+
+    private void run() {
+        List<PendingWrite> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingWrite first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + windowNanos;
+                while (batch.size() < maxBatch) {
+                    long remaining = deadline - System.nanoTime();
+                    PendingWrite next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : queue.poll();
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+            } catch (InterruptedException e) {
+                // Shutting down: flush whatever is already queued
+                queue.drainTo(batch);
+            }
+            if (!batch.isEmpty()) {
+                try {
+                    flush(batch);
+                } catch (RuntimeException e) {
+                    // This is the only writer thread: a failed batch must not stop it
+                    logger.error("Unexpected error flushing {} bid writes: ", batch.size(), e);
+                    for (PendingWrite write : batch) {
+                        write.done.completeExceptionally(e);
+                    }
+                } finally {
+                    batch.clear();
+                }
+            }
+        }
+    }
+
+    private void flush(List<PendingWrite> batch) {
+        // Cancelled by a rollback after an earlier write on the same product failed
+        batch.removeIf(write -> write.done.isDone());
+        if (batch.isEmpty()) {
+            return;
+        }
+        List<Bid> bids = new ArrayList<>(batch.size());
+        List<NotificationEvent> events = new ArrayList<>(batch.size() * 2);
+        List<ProxyBid> proxies = new ArrayList<>();
+        for (PendingWrite write : batch) {
+            bids.addAll(write.bids);
+            events.addAll(write.events);
+            proxies.addAll(write.proxies);
+        }
+
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                bidRepo.saveAll(bids);
+                eventRepo.saveAll(events);
+                proxyRepo.saveAll(proxies);
+            });
+        } catch (Exception e) {
+            logger.error("Error writing batch of {} bids: ", bids.size(), e);
+            for (PendingWrite write : batch) {
+                write.done.completeExceptionally(e);
+            }
+            return;
+        }
+
+        // Journaled in commit order, which is also the order the sequencer accepted them in per product.
+        // The rows are committed from here on, so no failure below may fail the writes.
+        for (PendingWrite write : batch) {
+            try {
+                journal.append(write.bids, write.leader);
+            } catch (RuntimeException e) {
+                logger.error("Error journaling {} committed bids: ", write.bids.size(), e);
+            }
+            write.done.complete(null);
+        }
+        try {
+            dispatcher.enqueue(events);
+        } catch (RuntimeException e) {
+            // The outbox rows are committed; the dispatcher's sweep delivers them later
+            logger.error("Error handing {} notification events to the dispatcher: ", events.size(), e);
+        }
+    }
+}
@@ -0,0 +1,13 @@
+package klu.model;
+
+import java.time.LocalDateTime;
+
+// One row per product a buyer has bid on, aggregated in the database
+public interface BuyerBidSummary {
+
+    int getProductId();
+
+    double getBestAmount();
+
+    LocalDateTime getLastBidTime();
+}
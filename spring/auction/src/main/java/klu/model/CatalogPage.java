@@ -0,0 +1,22 @@
+package klu.model;
+
+import java.util.List;
+
+public class CatalogPage {
+
+    private List<ProductSummary> items;
+    private String nextCursor; // null on the last page
+
+    public CatalogPage(List<ProductSummary> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<ProductSummary> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
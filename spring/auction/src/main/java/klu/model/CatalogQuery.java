@@ -0,0 +1,25 @@
+package klu.model;
+
+// Filters and order of a catalog listing; null filters are not applied
+public record CatalogQuery(String category, Double minPrice, Double maxPrice, boolean activeOnly,
+                           String sellerEmail, Sort sort) {
+
+    // Every order ends with the product id so that the keyset is unique
+    public enum Sort {
+        NEWEST,       // id descending
+        PRICE_ASC,    // price, id ascending
+        PRICE_DESC,   // price, id descending
+        ENDING_SOON;  // expiryDate, id ascending; products without an expiry date are left out
+
+        public static Sort of(String value) {
+            if (value == null || value.isBlank()) {
+                return NEWEST;
+            }
+            try {
+                return valueOf(value.trim().toUpperCase());
+            } catch (IllegalArgumentException e) {
+                throw new IllegalArgumentException("Invalid sort: " + value);
+            }
+        }
+    }
+}
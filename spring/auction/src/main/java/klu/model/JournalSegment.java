@@ -0,0 +1,102 @@
+package klu.model;
+
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.function.Consumer;
+import java.util.zip.CRC32C;
+
+// One pre-sized, memory-mapped journal file. Records are framed as [length][crc32c][payload];
+// the length is written last, so a torn record reads as length 0 or fails its CRC and ends the log.
+final class JournalSegment implements Closeable {
+
+    private static final int FRAME_HEADER = 8;
+
+    private final Path path;
+    private final long firstSeq;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final CRC32C crc = new CRC32C();
+
+    private JournalSegment(Path path, long firstSeq, FileChannel channel, MappedByteBuffer buffer) {
+        this.path = path;
+        this.firstSeq = firstSeq;
+        this.channel = channel;
+        this.buffer = buffer;
+    }
+
+    static JournalSegment open(Path path, long firstSeq, int size) throws IOException {
+        FileChannel channel = FileChannel.open(path,
+            StandardOpenOption.CREATE, StandardOpenOption.READ, StandardOpenOption.WRITE);
+        int mapped = (int) Math.max(size, channel.size());
+        return new JournalSegment(path, firstSeq, channel, channel.map(FileChannel.MapMode.READ_WRITE, 0, mapped));
+    }
+
+    Path getPath() {
+        return path;
+    }
+
+    long getFirstSeq() {
+        return firstSeq;
+    }
+
+    // Hands every intact record's payload to the consumer and leaves the write position after
+    // the last one; returns false if reading stopped at a damaged record rather than the end
+    boolean replay(Consumer<ByteBuffer> consumer) {
+        buffer.position(0);
+        while (buffer.remaining() >= FRAME_HEADER) {
+            int start = buffer.position();
+            int length = buffer.getInt();
+            int checksum = buffer.getInt();
+            if (length == 0) {
+                buffer.position(start);
+                return true;
+            }
+            if (length < 0 || length > buffer.remaining()) {
+                buffer.position(start);
+                return false;
+            }
+            ByteBuffer payload = buffer.slice(start + FRAME_HEADER, length);
+            crc.reset();
+            crc.update(payload.duplicate());
+            if ((int) crc.getValue() != checksum) {
+                buffer.position(start);
+                return false;
+            }
+            consumer.accept(payload);
+            buffer.position(start + FRAME_HEADER + length);
+        }
+        return true;
+    }
+
+    // Returns false when the record does not fit and a new segment is needed
+    boolean append(ByteBuffer payload) {
+        int length = payload.remaining();
+        int start = buffer.position();
+        if (buffer.capacity() - start < FRAME_HEADER + length + FRAME_HEADER) {
+            return false;
+        }
+        crc.reset();
+        crc.update(payload.duplicate());
+        buffer.put(start + FRAME_HEADER, payload, payload.position(), length);
+        buffer.putInt(start + 4, (int) crc.getValue());
+        buffer.putInt(start, length);
+        // Clear the next header so a reused file never shows a stale record after this one
+        buffer.putInt(start + FRAME_HEADER + length, 0);
+        buffer.position(start + FRAME_HEADER + length);
+        return true;
+    }
+
+    void force() {
+        buffer.force();
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
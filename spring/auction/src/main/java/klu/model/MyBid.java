@@ -0,0 +1,41 @@
+package klu.model;
+
+import java.time.LocalDateTime;
+
+// A buyer's best bid on a product together with the current leader
+public class MyBid {
+
+    private Product product;
+    private double bidAmount;
+    private LocalDateTime lastBidTime;
+    private Bid highestBid;
+    private boolean leading;
+
+    public MyBid(Product product, double bidAmount, LocalDateTime lastBidTime, Bid highestBid, boolean leading) {
+        this.product = product;
+        this.bidAmount = bidAmount;
+        this.lastBidTime = lastBidTime;
+        this.highestBid = highestBid;
+        this.leading = leading;
+    }
+
+    public Product getProduct() {
+        return product;
+    }
+
+    public double getBidAmount() {
+        return bidAmount;
+    }
+
+    public LocalDateTime getLastBidTime() {
+        return lastBidTime;
+    }
+
+    public Bid getHighestBid() {
+        return highestBid;
+    }
+
+    public boolean isLeading() {
+        return leading;
+    }
+}
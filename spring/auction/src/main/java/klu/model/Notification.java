@@ -4,11 +4,17 @@ import jakarta.persistence.*;
 import java.time.LocalDateTime;
 
 @Entity
-@Table(name = "notifications")
+@Table(name = "notifications", indexes = {
+    // Serves the per-user unread lookups and the chunked bulk updates (InnoDB appends the id)
+    @Index(name = "idx_notifications_user_read", columnList = "userEmail, read"),
+    @Index(name = "idx_notifications_user_time", columnList = "userEmail, createdAt")
+})
 public class Notification {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "notification_id")
+    @TableGenerator(name = "notification_id", table = "id_blocks", pkColumnName = "sequence_name",
+                    valueColumnName = "next_val", pkColumnValue = "notifications", allocationSize = 100)
     private int id;
 
     @Column
@@ -0,0 +1,255 @@
+package klu.model;
+
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+import klu.repo.NotificationEventRepository;
+import klu.repo.NotificationRepository;
+
+// Delivers outbox events as notifications off the bid path. Committed events are handed over
+// through a bounded queue; when it is full they stay in the outbox table and a sweep picks them up
+// once the queue has drained, so the bid writer never waits on notifications. Each batch deletes
+// its outbox rows and inserts the notifications in one transaction, and an event whose row is
+// already gone (delivered by an earlier sweep) or locked by another instance is skipped.
+//
+// Events of the coalesced types (OUTBID by default) are folded per (user, product, type): within
+// coalesce-window-ms of the notification they created, later ones rewrite that notification with
+// the latest message as long as it is still unread, instead of adding rows.
+@Component
+public class NotificationDispatcher {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationDispatcher.class);
+
+    @Autowired
+    private NotificationEventRepository eventRepo;
+
+    @Autowired
+    private NotificationRepository notificationRepo;
+
+    @Autowired
+    private NotificationManager notificationManager;
+
+    @Autowired
+    private UnreadCounters unreadCounters;
+
+    @Autowired
+    private JdbcTemplate jdbc;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${auction.notifications.dispatch-queue-capacity:10000}")
+    private int queueCapacity;
+
+    @Value("${auction.notifications.dispatch-batch:500}")
+    private int maxBatch;
+
+    @Value("${auction.notifications.sweep-interval-ms:30000}")
+    private long sweepIntervalMs;
+
+    @Value("${auction.notifications.coalesce-window-ms:60000}")
+    private long coalesceWindowMs;
+
+    @Value("${auction.notifications.coalesce-types:OUTBID}")
+    private Set<String> coalesceTypes;
+
+    private BlockingQueue<NotificationEvent> queue;
+    private TransactionTemplate transactionTemplate;
+    private Thread dispatcher;
+    private volatile boolean running;
+
+    // Set when events were left in the outbox table only: at startup, on overflow and after a failure
+    private volatile boolean backlog = true;
+    private long lastSweep;
+
+    // Notification that later events of the same key fold into; only used by the dispatcher thread
+    private record CoalesceKey(String userEmail, int productId, String type) {}
+    private record Pending(int notificationId, long expiresAt) {}
+    private final Map<CoalesceKey, Pending> pending = new HashMap<>();
+    private long lastExpiry;
+
+    @PostConstruct
+    public void start() {
+        queue = new ArrayBlockingQueue<>(queueCapacity);
+        transactionTemplate = new TransactionTemplate(transactionManager);
+        running = true;
+        dispatcher = new Thread(this::run, "notification-dispatcher");
+        dispatcher.setDaemon(true);
+        dispatcher.start();
+    }
+
+    @PreDestroy
+    public void stop() throws InterruptedException {
+        running = false;
+        dispatcher.interrupt();
+        dispatcher.join(TimeUnit.SECONDS.toMillis(10));
+    }
+
+    // Called by the bid writer after the events' transaction has committed; never blocks
+    public void enqueue(List<NotificationEvent> events) {
+        for (NotificationEvent event : events) {
+            if (!queue.offer(event)) {
+                backlog = true;
+                return;
+            }
+        }
+    }
+
+    private void run() {
+        List<NotificationEvent> batch = new ArrayList<>(maxBatch);
+        while (running || !queue.isEmpty()) {
+            try {
+                NotificationEvent first = queue.poll(1, TimeUnit.SECONDS);
+                if (first == null) {
+                    if (backlog || System.currentTimeMillis() - lastSweep >= sweepIntervalMs) {
+                        sweep();
+                    }
+                    continue;
+                }
+                batch.add(first);
+                queue.drainTo(batch, maxBatch - 1);
+            } catch (InterruptedException e) {
+                // Shutting down: deliver what is already queued, the rest waits in the outbox
+                queue.drainTo(batch, maxBatch);
+            }
+            if (!batch.isEmpty() && !dispatch(batch)) {
+                pause();
+            }
+            batch.clear();
+        }
+    }
+
+    private void sweep() {
+        backlog = false;
+        lastSweep = System.currentTimeMillis();
+        int after = 0;
+        long delivered = 0;
+        List<NotificationEvent> chunk;
+        do {
+            chunk = eventRepo.findByIdGreaterThanOrderByIdAsc(after, Limit.of(maxBatch));
+            if (chunk.isEmpty() || !dispatch(chunk)) {
+                break;
+            }
+            after = chunk.get(chunk.size() - 1).getId();
+            delivered += chunk.size();
+        } while (running && chunk.size() == maxBatch);
+        if (delivered > 0) {
+            logger.info("Delivered {} notifications from the outbox table", delivered);
+        }
+    }
+
+    private boolean dispatch(List<NotificationEvent> events) {
+        long now = System.currentTimeMillis();
+        if (now - lastExpiry >= coalesceWindowMs) {
+            pending.values().removeIf(p -> p.expiresAt() <= now);
+            lastExpiry = now;
+        }
+
+        List<Notification> notifications = new ArrayList<>(events.size());
+        try {
+            transactionTemplate.executeWithoutResult(status -> {
+                // Rows still in the outbox are locked and then deleted; rows another instance has
+                // locked are left to it. Per-row batch counts are not used: a rewritten batch may
+                // report SUCCESS_NO_INFO instead of them
+                Object[] ids = events.stream().map(NotificationEvent::getId).toArray();
+                Set<Integer> claimed = new HashSet<>(jdbc.queryForList(
+                    "SELECT id FROM notification_outbox WHERE id IN (" + placeholders(ids.length) + ") FOR UPDATE SKIP LOCKED",
+                    Integer.class, ids));
+                if (!claimed.isEmpty()) {
+                    jdbc.update("DELETE FROM notification_outbox WHERE id IN (" + placeholders(claimed.size()) + ")",
+                        claimed.toArray());
+                }
+
+                // Only the newest event per key in this batch matters for coalesced types
+                Map<CoalesceKey, NotificationEvent> newest = new LinkedHashMap<>();
+                for (NotificationEvent event : events) {
+                    if (!claimed.contains(event.getId())) {
+                        continue;
+                    }
+                    if (coalesceWindowMs > 0 && coalesceTypes.contains(event.getType())) {
+                        newest.put(key(event), event);
+                    } else {
+                        notifications.add(render(event));
+                    }
+                }
+                newest.forEach((key, event) -> {
+                    Notification notification = render(event);
+                    Pending target = pending.get(key);
+                    boolean folded = target != null && target.expiresAt() > now
+                        && notificationRepo.coalesce(target.notificationId(), notification.getMessage(),
+                            notification.getCreatedAt()) == 1;
+                    if (!folded) {
+                        notifications.add(notification);
+                    }
+                });
+                notificationRepo.saveAll(notifications);
+            });
+            for (Notification notification : notifications) {
+                unreadCounters.add(notification.getUserEmail(), 1);
+                if (coalesceWindowMs > 0 && coalesceTypes.contains(notification.getType())) {
+                    pending.put(new CoalesceKey(notification.getUserEmail(), notification.getProductId(),
+                        notification.getType()), new Pending(notification.getId(), now + coalesceWindowMs));
+                }
+            }
+            return true;
+        } catch (Exception e) {
+            logger.error("Error delivering {} notifications, retrying from the outbox table: ", events.size(), e);
+            backlog = true;
+            return false;
+        }
+    }
+
+    private static String placeholders(int count) {
+        return String.join(",", Collections.nCopies(count, "?"));
+    }
+
+    private static CoalesceKey key(NotificationEvent event) {
+        return new CoalesceKey(event.getUserEmail(), event.getProductId(), event.getType());
+    }
+
+    private Notification render(NotificationEvent event) {
+        String product = event.getProductName();
+        String amount = String.format("%.2f", event.getAmount());
+        String message = switch (event.getType()) {
+            case "OUTBID" -> event.getBidAmount() == null
+                ? "You've been outbid on '" + product + "'. Current highest bid: $" + amount
+                : "Your bid of $" + String.format("%.2f", event.getBidAmount()) + " on '" + product
+                    + "' was outbid by an automatic bid. Current highest bid: $" + amount;
+            case "WINNING_BID" -> "Congratulations! You have the winning bid on '" + product + "' with $" + amount;
+            default -> event.getType() + " on '" + product + "': $" + amount;
+        };
+        Notification notification = notificationManager.buildNotification(
+            event.getUserEmail(), message, event.getType(), event.getProductId());
+        notification.setCreatedAt(event.getCreatedAt());
+        return notification;
+    }
+
+    private void pause() {
+        try {
+            Thread.sleep(1000);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        }
+    }
+}
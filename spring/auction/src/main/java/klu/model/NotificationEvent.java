@@ -0,0 +1,89 @@
+package klu.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// Outbox row for a notification, written in the same transaction as the bid that caused it and
+// turned into a Notification by NotificationDispatcher once that transaction has committed
+@Entity
+@Table(name = "notification_outbox")
+public class NotificationEvent {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "notification_event_id")
+    @TableGenerator(name = "notification_event_id", table = "id_blocks", pkColumnName = "sequence_name",
+                    valueColumnName = "next_val", pkColumnValue = "notification_outbox", allocationSize = 100)
+    private int id;
+
+    private String userEmail;
+    private String type;
+    private int productId;
+    private String productName;
+    private double amount;      // current highest bid
+    private Double bidAmount;   // the recipient's own bid, when it was beaten by an automatic bid
+    private LocalDateTime createdAt;
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public String getUserEmail() {
+        return userEmail;
+    }
+
+    public void setUserEmail(String userEmail) {
+        this.userEmail = userEmail;
+    }
+
+    public String getType() {
+        return type;
+    }
+
+    public void setType(String type) {
+        this.type = type;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public void setProductId(int productId) {
+        this.productId = productId;
+    }
+
+    public String getProductName() {
+        return productName;
+    }
+
+    public void setProductName(String productName) {
+        this.productName = productName;
+    }
+
+    public double getAmount() {
+        return amount;
+    }
+
+    public void setAmount(double amount) {
+        this.amount = amount;
+    }
+
+    public Double getBidAmount() {
+        return bidAmount;
+    }
+
+    public void setBidAmount(Double bidAmount) {
+        this.bidAmount = bidAmount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+}
@@ -1,10 +1,15 @@
 package klu.model;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 import klu.repo.NotificationRepository;
 import java.time.LocalDateTime;
 import java.util.List;
+import java.util.function.IntBinaryOperator;
+import java.util.function.IntFunction;
 
 @Service
 public class NotificationManager {
@@ -12,7 +17,25 @@ public class NotificationManager {
     @Autowired
     private NotificationRepository notificationRepository;
 
+    @Autowired
+    private UnreadCounters unreadCounters;
+
+    @Value("${auction.notifications.bulk-chunk:1000}")
+    private int bulkChunk;
+
+    @Value("${auction.notifications.page-size:20}")
+    private int pageSize;
+
+    @Value("${auction.notifications.max-page-size:100}")
+    private int maxPageSize;
+
     public void createNotification(String userEmail, String message, String type, Integer productId) {
+        notificationRepository.save(buildNotification(userEmail, message, type, productId));
+        unreadCounters.add(userEmail, 1);
+    }
+
+    // Builds an unsaved notification for callers that persist it in their own batch
+    public Notification buildNotification(String userEmail, String message, String type, Integer productId) {
         Notification notification = new Notification();
         notification.setUserEmail(userEmail);
         notification.setMessage(message);
@@ -20,11 +43,50 @@ public class NotificationManager {
         notification.setRead(false);
         notification.setCreatedAt(LocalDateTime.now());
         notification.setProductId(productId);
-        notificationRepository.save(notification);
+        return notification;
     }
 
-    public List<Notification> getUserNotifications(String userEmail) {
-        return notificationRepository.findByUserEmailOrderByCreatedAtDesc(userEmail);
+    // Builds an unsaved outbox event; NotificationDispatcher turns it into a notification after commit
+    public NotificationEvent buildEvent(String userEmail, String type, int productId, String productName,
+                                        double amount, Double bidAmount) {
+        NotificationEvent event = new NotificationEvent();
+        event.setUserEmail(userEmail);
+        event.setType(type);
+        event.setProductId(productId);
+        event.setProductName(productName);
+        event.setAmount(amount);
+        event.setBidAmount(bidAmount);
+        event.setCreatedAt(LocalDateTime.now());
+        return event;
+    }
+
+    // Newest first; the cursor is "<createdAt>_<id>" of the last notification on the previous page
+    @Transactional(readOnly = true)
+    public NotificationPage getUserNotifications(String userEmail, String cursor, Integer size) {
+        int limit = size == null ? pageSize : Math.min(Math.max(size, 1), maxPageSize);
+        // Fetch one extra row to know whether an older page exists
+        List<Notification> rows;
+        if (cursor == null || cursor.isBlank()) {
+            rows = notificationRepository.findPage(userEmail, Limit.of(limit + 1));
+        } else {
+            LocalDateTime createdAt;
+            int id;
+            try {
+                int split = cursor.lastIndexOf('_');
+                createdAt = LocalDateTime.parse(cursor.substring(0, split));
+                id = Integer.parseInt(cursor.substring(split + 1));
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+            rows = notificationRepository.findPageBefore(userEmail, createdAt, id, Limit.of(limit + 1));
+        }
+
+        if (rows.size() <= limit) {
+            return new NotificationPage(rows, null);
+        }
+        List<Notification> items = rows.subList(0, limit);
+        Notification last = items.get(limit - 1);
+        return new NotificationPage(items, last.getCreatedAt() + "_" + last.getId());
     }
 
     public List<Notification> getUnreadNotifications(String userEmail) {
@@ -32,7 +94,7 @@ public class NotificationManager {
     }
 
     public long getUnreadCount(String userEmail) {
-        return notificationRepository.countByUserEmailAndReadFalse(userEmail);
+        return unreadCounters.get(userEmail);
     }
 
     public String markAsRead(int notificationId) {
@@ -40,18 +102,75 @@ public class NotificationManager {
         if (notification == null) {
             return "404::Notification Not Found";
         }
-        notification.setRead(true);
-        notificationRepository.save(notification);
+        if (!notification.isRead()) {
+            notification.setRead(true);
+            notificationRepository.save(notification);
+            unreadCounters.add(notification.getUserEmail(), -1);
+        }
         return "200::Notification marked as read";
     }
 
     public String markAllAsRead(String userEmail) {
-        List<Notification> unreadNotifications = getUnreadNotifications(userEmail);
-        for (Notification notification : unreadNotifications) {
-            notification.setRead(true);
-            notificationRepository.save(notification);
+        return markAllAsRead(userEmail, null, null);
+    }
+
+    // Marks the user's unread notifications read, optionally only those of one type and/or product
+    public String markAllAsRead(String userEmail, String type, Integer productId) {
+        requireEmail(userEmail);
+        int updated = inChunks(
+            after -> notificationRepository.findUnreadIds(userEmail, type, productId, after, Limit.of(bulkChunk)),
+            (after, upTo) -> notificationRepository.markReadInRange(userEmail, type, productId, after, upTo));
+        unreadCounters.add(userEmail, -updated);
+        return "200::" + updated + " notifications marked as read";
+    }
+
+    // Deletes the user's notifications created before the given time, optionally of one type and/or product
+    public String deleteNotifications(String userEmail, String type, Integer productId, LocalDateTime before) {
+        requireEmail(userEmail);
+        int deleted = inChunks(
+            after -> notificationRepository.findIdsBefore(userEmail, type, productId, before, after, Limit.of(bulkChunk)),
+            (after, upTo) -> notificationRepository.deleteInRange(userEmail, type, productId, before, after, upTo));
+        unreadCounters.invalidate(userEmail);
+        return "200::" + deleted + " notifications deleted";
+    }
+
+    // Deletes every user's notifications older than the given number of days
+    public String deleteOlderThan(int days) {
+        if (days < 1) {
+            return "400::Days must be at least 1";
         }
-        return "200::All notifications marked as read";
+        LocalDateTime before = LocalDateTime.now().minusDays(days);
+        int deleted = inChunks(
+            after -> notificationRepository.findIdsOlderThan(before, after, Limit.of(bulkChunk)),
+            (after, upTo) -> notificationRepository.deleteOlderThanInRange(before, after, upTo));
+        unreadCounters.invalidateAll();
+        return "200::" + deleted + " notifications deleted";
+    }
+
+    // Bulk changes to one user's notifications must name the user; a missing email would
+    // otherwise reach every user's rows
+    private static void requireEmail(String userEmail) {
+        if (userEmail == null || userEmail.isBlank()) {
+            throw new IllegalArgumentException("Email is required");
+        }
+    }
+
+    // Runs a bulk statement one id range at a time, each in its own short transaction,
+    // so a large operation never holds locks on the whole set of rows at once
+    private int inChunks(IntFunction<List<Integer>> nextIds, IntBinaryOperator apply) {
+        int total = 0;
+        int after = 0;
+        List<Integer> ids;
+        do {
+            ids = nextIds.apply(after);
+            if (ids.isEmpty()) {
+                break;
+            }
+            int upTo = ids.get(ids.size() - 1);
+            total += apply.applyAsInt(after, upTo);
+            after = upTo;
+        } while (ids.size() == bulkChunk);
+        return total;
     }
 }
 
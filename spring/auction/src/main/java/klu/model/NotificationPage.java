@@ -0,0 +1,22 @@
+package klu.model;
+
+import java.util.List;
+
+public class NotificationPage {
+
+    private List<Notification> items;
+    private String nextCursor; // null when there are no older notifications
+
+    public NotificationPage(List<Notification> items, String nextCursor) {
+        this.items = items;
+        this.nextCursor = nextCursor;
+    }
+
+    public List<Notification> getItems() {
+        return items;
+    }
+
+    public String getNextCursor() {
+        return nextCursor;
+    }
+}
@@ -0,0 +1,83 @@
+package klu.model;
+
+import java.time.LocalDateTime;
+import java.util.List;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import jakarta.annotation.PostConstruct;
+import klu.repo.NotificationRepository;
+
+// Keeps the notifications table small: read notifications older than read-age-days are copied to
+// notifications_archive and deleted, one id range per short transaction with a pause in between
+// so the move never holds locks for long or crowds out bid traffic. Unread notifications stay.
+@Component
+public class NotificationRetention {
+
+    private static final Logger logger = LoggerFactory.getLogger(NotificationRetention.class);
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Value("${auction.notifications.retention.enabled:true}")
+    private boolean enabled;
+
+    @Value("${auction.notifications.retention.read-age-days:30}")
+    private int readAgeDays;
+
+    @Value("${auction.notifications.retention.chunk:1000}")
+    private int chunk;
+
+    @Value("${auction.notifications.retention.pause-ms:100}")
+    private long pauseMs;
+
+    private TransactionTemplate transactionTemplate;
+
+    @PostConstruct
+    public void init() {
+        transactionTemplate = new TransactionTemplate(transactionManager);
+    }
+
+    @Scheduled(initialDelayString = "${auction.notifications.retention.initial-delay-ms:60000}",
+               fixedDelayString = "${auction.notifications.retention.interval-ms:3600000}")
+    public void archive() throws InterruptedException {
+        if (!enabled) {
+            return;
+        }
+        LocalDateTime before = LocalDateTime.now().minusDays(readAgeDays);
+        long started = System.currentTimeMillis();
+        int archived = 0;
+        int after = 0;
+        List<Integer> ids;
+        do {
+            ids = notificationRepository.findArchivableIds(before, after, Limit.of(chunk));
+            if (ids.isEmpty()) {
+                break;
+            }
+            int from = after;
+            int upTo = ids.get(ids.size() - 1);
+            archived += transactionTemplate.execute(status -> {
+                notificationRepository.archiveInRange(before, from, upTo);
+                return notificationRepository.deleteArchivedInRange(before, from, upTo);
+            });
+            after = upTo;
+            Thread.sleep(pauseMs);
+        } while (ids.size() == chunk);
+
+        if (archived > 0) {
+            logger.info("Archived {} read notifications older than {} days in {} ms", archived, readAgeDays,
+                System.currentTimeMillis() - started);
+        }
+    }
+}
@@ -1,14 +1,21 @@
 package klu.model;
 
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.mail.SimpleMailMessage;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.stereotype.Service;
 
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
 import java.util.HashMap;
 import java.util.Map;
 import java.util.Random;
 import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
 
 @Service
 public class OTPService {
@@ -16,6 +23,14 @@ public class OTPService {
     @Autowired
     private JavaMailSender mailSender;
 
+    @Value("${spring.threads.virtual.enabled:false}")
+    private boolean virtualThreads;
+
+    // Jakarta Mail's SMTP transport blocks inside synchronized methods, which pins a virtual thread
+    // to its carrier for the whole SMTP exchange. In virtual-thread mode the send runs on a small
+    // platform pool and the request thread only parks on the result.
+    private ExecutorService mailPool;
+
     // Store OTPs temporarily (in production, use Redis or database)
     private final Map<String, OTPData> otpStore = new ConcurrentHashMap<>();
     private static final int OTP_EXPIRY_MINUTES = 10;
@@ -35,6 +50,24 @@ public class OTPService {
         }
     }
 
+    @PostConstruct
+    public void init() {
+        if (virtualThreads) {
+            mailPool = Executors.newFixedThreadPool(2, r -> {
+                Thread t = new Thread(r, "otp-mail");
+                t.setDaemon(true);
+                return t;
+            });
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        if (mailPool != null) {
+            mailPool.shutdown();
+        }
+    }
+
     public String generateOTP() {
         Random random = new Random();
         int otp = 100000 + random.nextInt(900000); // 6-digit OTP
@@ -75,7 +108,7 @@ public class OTPService {
             
             System.out.println("Attempting to send email to: " + email);
             System.out.println("From email: " + FROM_EMAIL);
-            mailSender.send(message);
+            send(message);
             System.out.println("Email sent successfully to: " + email);
             System.out.println("========================================");
             
@@ -90,6 +123,18 @@ public class OTPService {
         }
     }
 
+    private void send(SimpleMailMessage message) throws Exception {
+        if (mailPool == null) {
+            mailSender.send(message);
+            return;
+        }
+        try {
+            mailPool.submit(() -> mailSender.send(message)).get();
+        } catch (ExecutionException e) {
+            throw e.getCause() instanceof Exception cause ? cause : e;
+        }
+    }
+
     public String verifyOTP(String email, String otp) {
         OTPData otpData = otpStore.get(email.toLowerCase().trim());
         
@@ -5,6 +5,7 @@ import java.util.List;
 
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import klu.repo.OrderRepository;
 
@@ -17,9 +18,20 @@ public class OrderManager {
     WalletManager WM;
 
     public String placeOrder(Order O) {
+        // Settlement: the winning bid's hold pays for the order and is released only once the
+        // deduction and the order are both saved
+        String deducted = WM.deductBalance(O.getBuyerEmail(), O.getAmount(), O.getProductId());
+        if (!deducted.startsWith("200::")) {
+            return deducted;
+        }
         O.setOrderDate(LocalDateTime.now());
-        OR.save(O);
-        WM.deductBalance(O.getBuyerEmail(), O.getAmount());
+        try {
+            OR.save(O);
+        } catch (RuntimeException e) {
+            WM.creditBalance(O.getBuyerEmail(), O.getAmount());
+            throw e;
+        }
+        WM.release(O.getBuyerEmail(), O.getProductId());
         return "200::Order placed successfully";
     }
 
@@ -27,6 +39,7 @@ public class OrderManager {
         return OR.findByBuyerEmail(email);
     }
 
+    @Transactional(readOnly = true)
     public List<Order> getAllOrders() {
         return OR.findAll();
     }
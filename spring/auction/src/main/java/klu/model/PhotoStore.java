@@ -0,0 +1,83 @@
+package klu.model;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.NoSuchFileException;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.nio.file.attribute.BasicFileAttributes;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.MediaType;
+import org.springframework.http.MediaTypeFactory;
+import org.springframework.stereotype.Component;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+
+import jakarta.annotation.PostConstruct;
+
+// Uploaded product photos on local disk. An upload gets a new timestamped file name and is never
+// rewritten, so a photo's size and modification time make a strong ETag and clients may cache it
+// for good. File metadata is kept in a bounded cache so serving a photo does not stat the file.
+@Component
+public class PhotoStore {
+
+    public static final Path UPLOAD_DIR = Paths.get("uploads");
+    public static final String URL_PREFIX = "/products/photo/";
+
+    public record Photo(Path path, long size, long lastModified, String etag, MediaType mediaType) {}
+
+    @Value("${auction.photos.metadata-cache-size:10000}")
+    private long cacheSize;
+
+    private Cache<String, Photo> photos;
+
+    // By file extension; MediaTypeFactory only looks at the name, so nothing is read from disk
+    private final Map<String, MediaType> mediaTypes = new ConcurrentHashMap<>();
+
+    @PostConstruct
+    public void init() {
+        photos = Caffeine.newBuilder()
+            .maximumSize(cacheSize)
+            .expireAfterAccess(Duration.ofHours(1))
+            .build();
+    }
+
+    // Null when there is no such photo
+    public Photo find(String filename) throws IOException {
+        Photo photo = photos.getIfPresent(filename);
+        if (photo != null) {
+            return photo;
+        }
+        Path path = UPLOAD_DIR.resolve(filename).normalize();
+        if (!path.startsWith(UPLOAD_DIR) || path.equals(UPLOAD_DIR)) {
+            return null;
+        }
+        BasicFileAttributes attributes;
+        try {
+            attributes = Files.readAttributes(path, BasicFileAttributes.class);
+        } catch (NoSuchFileException e) {
+            return null;
+        }
+        if (!attributes.isRegularFile()) {
+            return null;
+        }
+        long lastModified = attributes.lastModifiedTime().toMillis();
+        photo = new Photo(path, attributes.size(), lastModified,
+            "\"" + Long.toHexString(attributes.size()) + "-" + Long.toHexString(lastModified) + "\"",
+            mediaType(filename));
+        photos.put(filename, photo);
+        return photo;
+    }
+
+    private MediaType mediaType(String filename) {
+        int dot = filename.lastIndexOf('.');
+        String extension = dot < 0 ? "" : filename.substring(dot + 1).toLowerCase();
+        return mediaTypes.computeIfAbsent(extension,
+            ext -> MediaTypeFactory.getMediaType("photo." + ext).orElse(MediaType.IMAGE_JPEG));
+    }
+}
@@ -0,0 +1,218 @@
+package klu.model;
+
+import java.awt.Color;
+import java.awt.Graphics2D;
+import java.awt.RenderingHints;
+import java.awt.image.BufferedImage;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.util.ArrayList;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import javax.imageio.IIOImage;
+import javax.imageio.ImageIO;
+import javax.imageio.ImageReadParam;
+import javax.imageio.ImageReader;
+import javax.imageio.ImageWriteParam;
+import javax.imageio.ImageWriter;
+import javax.imageio.stream.ImageInputStream;
+import javax.imageio.stream.ImageOutputStream;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import jakarta.annotation.PostConstruct;
+import jakarta.annotation.PreDestroy;
+
+// Downscaled JPEG copies of uploaded product photos, made off the request thread on a small pool
+// with a bounded queue. Each upload is decoded once, subsampled while decoding when it is far
+// larger than the biggest variant, and scaled down from one variant to the next. Once the files
+// are in place the product's photoVariants column lists them. When the queue is full the upload
+// is skipped and clients keep using the original photo.
+@Component
+public class PhotoVariants {
+
+    private static final Logger logger = LoggerFactory.getLogger(PhotoVariants.class);
+
+    // Largest first; each is the longest side in pixels. Photos are never scaled up.
+    public static final List<Variant> VARIANTS = List.of(
+        new Variant("detail", 1200),
+        new Variant("card", 480),
+        new Variant("thumb", 160));
+
+    public record Variant(String name, int maxSide) {}
+
+    // Larger images are refused rather than decoded (a small PNG can expand to gigabytes)
+    private static final long MAX_PIXELS = 50_000_000L;
+
+    @Autowired
+    private ProductManager productManager;
+
+    @Value("${auction.photos.variant-threads:2}")
+    private int threads;
+
+    @Value("${auction.photos.variant-queue-capacity:100}")
+    private int queueCapacity;
+
+    @Value("${auction.photos.jpeg-quality:0.85}")
+    private float jpegQuality;
+
+    private ThreadPoolExecutor pool;
+
+    @PostConstruct
+    public void start() {
+        AtomicInteger counter = new AtomicInteger();
+        pool = new ThreadPoolExecutor(threads, threads, 0, TimeUnit.MILLISECONDS,
+            new ArrayBlockingQueue<>(queueCapacity), r -> {
+                Thread t = new Thread(r, "photo-variants-" + counter.incrementAndGet());
+                t.setDaemon(true);
+                t.setPriority(Thread.MIN_PRIORITY);
+                return t;
+            });
+    }
+
+    @PreDestroy
+    public void stop() {
+        pool.shutdownNow();
+    }
+
+    // File name of a variant of an uploaded photo: "<name without extension>.<variant>.jpg"
+    public static String fileName(String original, String variant) {
+        int dot = original.lastIndexOf('.');
+        return (dot > 0 ? original.substring(0, dot) : original) + "." + variant + ".jpg";
+    }
+
+    // Variant name to URL for the variants listed in photoVariants, e.g. "detail,card,thumb"
+    public static Map<String, String> urls(String photoUrl, String photoVariants) {
+        if (photoUrl == null || photoVariants == null || photoVariants.isEmpty()
+                || !photoUrl.startsWith(PhotoStore.URL_PREFIX)) {
+            return Map.of();
+        }
+        String original = photoUrl.substring(PhotoStore.URL_PREFIX.length());
+        Map<String, String> urls = new LinkedHashMap<>();
+        for (String variant : photoVariants.split(",")) {
+            urls.put(variant, PhotoStore.URL_PREFIX + fileName(original, variant));
+        }
+        return urls;
+    }
+
+    public void submit(int productId, String fileName) {
+        try {
+            pool.execute(() -> generate(productId, fileName));
+        } catch (RejectedExecutionException e) {
+            logger.warn("Photo variant queue full, product {} keeps only its original photo", productId);
+        }
+    }
+
+    private void generate(int productId, String fileName) {
+        long started = System.currentTimeMillis();
+        Path source = PhotoStore.UPLOAD_DIR.resolve(fileName);
+        try {
+            BufferedImage image = decode(source, VARIANTS.get(0).maxSide());
+            if (image == null) {
+                logger.warn("Photo {} of product {} could not be decoded, no variants made", fileName, productId);
+                return;
+            }
+            List<String> made = new ArrayList<>();
+            for (Variant variant : VARIANTS) {
+                image = scale(image, variant.maxSide());
+                write(image, PhotoStore.UPLOAD_DIR.resolve(fileName(fileName, variant.name())));
+                made.add(variant.name());
+            }
+            productManager.setPhotoVariants(productId, PhotoStore.URL_PREFIX + fileName, String.join(",", made));
+            logger.debug("Made {} variants of {} in {} ms", made.size(), fileName, System.currentTimeMillis() - started);
+        } catch (Exception e) {
+            logger.error("Error making variants of photo {} for product {}: ", fileName, productId, e);
+        }
+    }
+
+    // Reads the image, skipping source pixels while decoding when it is over twice the size needed
+    private static BufferedImage decode(Path source, int maxSide) throws IOException {
+        try (ImageInputStream input = ImageIO.createImageInputStream(source.toFile())) {
+            if (input == null) {
+                return null;
+            }
+            Iterator<ImageReader> readers = ImageIO.getImageReaders(input);
+            if (!readers.hasNext()) {
+                return null;
+            }
+            ImageReader reader = readers.next();
+            try {
+                reader.setInput(input, true, true);
+                int width = reader.getWidth(0);
+                int height = reader.getHeight(0);
+                if ((long) width * height > MAX_PIXELS) {
+                    logger.warn("Photo {} is {}x{}, too large to make variants of", source.getFileName(), width, height);
+                    return null;
+                }
+                ImageReadParam param = reader.getDefaultReadParam();
+                int step = Math.max(1, Math.max(width, height) / (maxSide * 2));
+                param.setSourceSubsampling(step, step, 0, 0);
+                return reader.read(0, param);
+            } finally {
+                reader.dispose();
+            }
+        }
+    }
+
+    // Halves at a time, then one bilinear step to the exact size, so downscaling stays smooth
+    static BufferedImage scale(BufferedImage image, int maxSide) {
+        int longest = Math.max(image.getWidth(), image.getHeight());
+        double ratio = Math.min(1.0, (double) maxSide / longest);
+        int targetWidth = Math.max(1, (int) Math.round(image.getWidth() * ratio));
+        int targetHeight = Math.max(1, (int) Math.round(image.getHeight() * ratio));
+
+        BufferedImage current = image;
+        do {
+            int width = Math.max(targetWidth, current.getWidth() / 2);
+            int height = Math.max(targetHeight, current.getHeight() / 2);
+            // JPEG has no alpha: transparent areas become white
+            BufferedImage next = new BufferedImage(width, height, BufferedImage.TYPE_INT_RGB);
+            Graphics2D g = next.createGraphics();
+            try {
+                g.setRenderingHint(RenderingHints.KEY_INTERPOLATION, RenderingHints.VALUE_INTERPOLATION_BILINEAR);
+                g.setRenderingHint(RenderingHints.KEY_RENDERING, RenderingHints.VALUE_RENDER_QUALITY);
+                g.setColor(Color.WHITE);
+                g.fillRect(0, 0, width, height);
+                g.drawImage(current, 0, 0, width, height, null);
+            } finally {
+                g.dispose();
+            }
+            current = next;
+        } while (current.getWidth() != targetWidth || current.getHeight() != targetHeight);
+        return current;
+    }
+
+    // Written next to the target and moved into place, so a variant is never served half-written
+    private void write(BufferedImage image, Path target) throws IOException {
+        Path temp = Files.createTempFile(target.getParent(), "variant", ".tmp");
+        try {
+            ImageWriter writer = ImageIO.getImageWritersByFormatName("jpeg").next();
+            try (ImageOutputStream output = ImageIO.createImageOutputStream(temp.toFile())) {
+                ImageWriteParam param = writer.getDefaultWriteParam();
+                param.setCompressionMode(ImageWriteParam.MODE_EXPLICIT);
+                param.setCompressionQuality(jpegQuality);
+                writer.setOutput(output);
+                writer.write(null, new IIOImage(image, null, null), param);
+            } finally {
+                writer.dispose();
+            }
+            Files.move(temp, target, StandardCopyOption.REPLACE_EXISTING, StandardCopyOption.ATOMIC_MOVE);
+        } finally {
+            Files.deleteIfExists(temp);
+        }
+    }
+}
@@ -2,10 +2,18 @@ package klu.model;
 
 import jakarta.persistence.*;
 import java.time.LocalDate;
+import java.util.Map;
 import com.fasterxml.jackson.annotation.JsonFormat;
+import com.fasterxml.jackson.annotation.JsonProperty;
 
 @Entity
-@Table(name = "products")
+@Table(name = "products", indexes = {
+    @Index(name = "idx_products_expiry", columnList = "expiryDate"),
+    @Index(name = "idx_products_price", columnList = "price"),
+    @Index(name = "idx_products_category_price", columnList = "category, price"),
+    @Index(name = "idx_products_category_expiry", columnList = "category, expiryDate"),
+    @Index(name = "idx_products_seller", columnList = "sellerEmail")
+})
 public class Product {
 
     @Id
@@ -37,6 +45,18 @@ public class Product {
     @Column
     private String photoUrl;
 
+    // Downscaled copies of the photo that exist, e.g. "detail,card,thumb"; set once they are made,
+    // never from a request body
+    @Column
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private String photoVariants;
+
+    // Set once the close of the auction ending on expiryDate has been announced; null on rows
+    // from before the flag existed
+    @Column
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    private Boolean closed = false;
+
     public String getPhotoUrl() {
         return photoUrl;
     }
@@ -45,6 +65,28 @@ public class Product {
         this.photoUrl = photoUrl;
     }
 
+    public String getPhotoVariants() {
+        return photoVariants;
+    }
+
+    public void setPhotoVariants(String photoVariants) {
+        this.photoVariants = photoVariants;
+    }
+
+    public Boolean getClosed() {
+        return closed;
+    }
+
+    public void setClosed(Boolean closed) {
+        this.closed = closed;
+    }
+
+    // Variant name to URL, so clients can fetch the size they render
+    @JsonProperty(access = JsonProperty.Access.READ_ONLY)
+    public Map<String, String> getPhotoUrls() {
+        return PhotoVariants.urls(photoUrl, photoVariants);
+    }
+
     public int getId() {
         return id;
     }
@@ -0,0 +1,40 @@
+package klu.model;
+
+import java.time.LocalDateTime;
+
+// Committed bidding state of one product, as kept by the bid journal
+public class ProductActivity {
+
+    private final int productId;
+    private final int bidCount;
+    private final LocalDateTime lastBidTime;
+    private final Bid leader;
+
+    public ProductActivity(int productId, int bidCount, LocalDateTime lastBidTime, Bid leader) {
+        this.productId = productId;
+        this.bidCount = bidCount;
+        this.lastBidTime = lastBidTime;
+        this.leader = leader;
+    }
+
+    ProductActivity withBid(Bid bid, boolean leading) {
+        LocalDateTime last = lastBidTime == null || bid.getBidTime().isAfter(lastBidTime) ? bid.getBidTime() : lastBidTime;
+        return new ProductActivity(productId, bidCount + 1, last, leading ? bid : leader);
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public int getBidCount() {
+        return bidCount;
+    }
+
+    public LocalDateTime getLastBidTime() {
+        return lastBidTime;
+    }
+
+    public Bid getLeader() {
+        return leader;
+    }
+}
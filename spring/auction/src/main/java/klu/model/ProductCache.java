@@ -0,0 +1,90 @@
+package klu.model;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.HashMap;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+
+import jakarta.annotation.PostConstruct;
+import klu.repo.ProductRepository;
+
+// Products by id for the product page and the bid path, read through to the database on a miss.
+// Concurrent misses on one id share a single load. Entries are bounded by max-size and dropped
+// ttl-ms after loading; ProductManager invalidates an id whenever it writes that product, both
+// right away and again once the write commits, so a load racing the transaction is not kept.
+// Missing products are not cached.
+@Component
+public class ProductCache {
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Value("${auction.products.cache.max-size:10000}")
+    private long maxSize;
+
+    @Value("${auction.products.cache.ttl-ms:300000}")
+    private long ttlMs;
+
+    private Cache<Integer, Product> cache;
+
+    @PostConstruct
+    public void init() {
+        cache = Caffeine.newBuilder()
+            .maximumSize(maxSize)
+            .expireAfterWrite(Duration.ofMillis(ttlMs))
+            .recordStats()
+            .build();
+    }
+
+    public Product get(int id) {
+        return cache.get(id, key -> productRepository.findById(key).orElse(null));
+    }
+
+    // Products that exist among ids; the missing ones are loaded with one query
+    public Map<Integer, Product> getAll(Collection<Integer> ids) {
+        return cache.getAll(ids, missing -> {
+            Map<Integer, Product> loaded = new HashMap<>();
+            for (Product product : productRepository.findAllById(List.copyOf(missing))) {
+                loaded.put(product.getId(), product);
+            }
+            return loaded;
+        });
+    }
+
+    public void invalidate(int id) {
+        cache.invalidate(id);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCompletion(int status) {
+                    cache.invalidate(id);
+                }
+            });
+        }
+    }
+
+    public Map<String, Object> getStats() {
+        CacheStats stats = cache.stats();
+        Map<String, Object> summary = new LinkedHashMap<>();
+        summary.put("size", cache.estimatedSize());
+        summary.put("hits", stats.hitCount());
+        summary.put("misses", stats.missCount());
+        summary.put("hitRate", stats.hitRate());
+        summary.put("evictions", stats.evictionCount());
+        summary.put("loads", stats.loadCount());
+        summary.put("averageLoadMs", stats.averageLoadPenalty() / 1_000_000.0);
+        return summary;
+    }
+}
@@ -0,0 +1,10 @@
+package klu.model;
+
+import java.time.LocalDate;
+
+public interface ProductExpiry {
+
+    int getId();
+
+    LocalDate getExpiryDate();
+}
@@ -1,7 +1,11 @@
 package klu.model;
 
+import java.util.Collection;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.stereotype.Service;
 import klu.repo.ProductRepository;
 import org.slf4j.Logger;
@@ -17,6 +21,24 @@ public class ProductManager {
     @Autowired
     private ProductRepository PR;
 
+    @Autowired
+    private AuctionCloseScheduler closeScheduler;
+
+    @Autowired
+    private ProductCache productCache;
+
+    @Autowired
+    private ProductSearchIndex searchIndex;
+
+    @Value("${auction.products.search.page-size:20}")
+    private int searchPageSize;
+
+    @Value("${auction.products.catalog.page-size:24}")
+    private int catalogPageSize;
+
+    @Value("${auction.products.catalog.max-page-size:100}")
+    private int catalogMaxPageSize;
+
     @Transactional
     public String addProduct(Product product) {
         try {
@@ -43,6 +65,9 @@ public class ProductManager {
             }
 
             PR.save(product);
+            productCache.invalidate(product.getId());
+            searchIndex.update(product);
+            closeScheduler.schedule(product);
             logger.info("Product added successfully: {}", product.getName());
             return "200::Product Added Successfully";
         } catch (Exception e) {
@@ -54,7 +79,8 @@ public class ProductManager {
     @Transactional
     public String updateProduct(Product product) {
         try {
-            if (!PR.existsById(product.getId())) {
+            Product existing = PR.findById(product.getId()).orElse(null);
+            if (existing == null) {
                 return "404::Product Not Found";
             }
 
@@ -72,7 +98,17 @@ public class ProductManager {
                 return "400::Seller email is required";
             }
 
+            // Variants are not part of the request body; they stay while the photo does
+            product.setPhotoVariants(Objects.equals(product.getPhotoUrl(), existing.getPhotoUrl())
+                ? existing.getPhotoVariants() : null);
+            // A new expiry date is a new auction end to announce
+            product.setClosed(Objects.equals(product.getExpiryDate(), existing.getExpiryDate())
+                ? existing.getClosed() : Boolean.FALSE);
+
             PR.save(product);
+            productCache.invalidate(product.getId());
+            searchIndex.update(product);
+            closeScheduler.schedule(product);
             logger.info("Product updated successfully: {}", product.getName());
             return "200::Product Updated Successfully";
         } catch (Exception e) {
@@ -88,6 +124,9 @@ public class ProductManager {
                 return "404::Product Not Found";
             }
             PR.deleteById(id);
+            productCache.invalidate(id);
+            searchIndex.remove(id);
+            closeScheduler.cancel(id);
             logger.info("Product deleted successfully with id: {}", id);
             return "200::Product Deleted Successfully";
         } catch (Exception e) {
@@ -96,6 +135,7 @@ public class ProductManager {
         }
     }
 
+    @Transactional(readOnly = true)
     public List<Product> getAllProducts() {
         try {
             List<Product> products = PR.findAll();
@@ -107,6 +147,47 @@ public class ProductManager {
         }
     }
 
+    // One catalog page; the cursor is "<sort key>_<id>" of the last product on the previous page
+    @Transactional(readOnly = true)
+    public CatalogPage getCatalog(CatalogQuery query, String cursor, Integer size) {
+        int limit = size == null ? catalogPageSize : Math.min(Math.max(size, 1), catalogMaxPageSize);
+        Object afterKey = null;
+        Integer afterId = null;
+        if (cursor != null && !cursor.isBlank()) {
+            int split = cursor.lastIndexOf('_');
+            try {
+                afterId = Integer.parseInt(cursor.substring(split + 1));
+                String key = cursor.substring(0, Math.max(split, 0));
+                afterKey = switch (query.sort()) {
+                    case PRICE_ASC, PRICE_DESC -> Double.valueOf(key);
+                    case ENDING_SOON -> LocalDate.parse(key);
+                    case NEWEST -> null;
+                };
+            } catch (RuntimeException e) {
+                throw new IllegalArgumentException("Invalid cursor: " + cursor);
+            }
+        }
+
+        // Fetch one extra row to know whether another page exists
+        List<ProductSummary> rows = PR.findCatalog(query, afterKey, afterId, limit + 1);
+        if (rows.size() <= limit) {
+            return new CatalogPage(rows, null);
+        }
+        List<ProductSummary> items = rows.subList(0, limit);
+        ProductSummary last = items.get(limit - 1);
+        String key = switch (query.sort()) {
+            case PRICE_ASC, PRICE_DESC -> String.valueOf(last.getPrice());
+            case ENDING_SOON -> String.valueOf(last.getExpiryDate());
+            case NEWEST -> "";
+        };
+        return new CatalogPage(items, key + "_" + last.getId());
+    }
+
+    public List<ProductSummary> searchProducts(String query, String category, boolean activeOnly, Integer size) {
+        int limit = size == null ? searchPageSize : Math.min(Math.max(size, 1), catalogMaxPageSize);
+        return searchIndex.search(query, category, activeOnly, limit);
+    }
+
     public List<Product> getProductsBySeller(String email) {
         try {
             if (email == null || email.trim().isEmpty()) {
@@ -123,11 +204,9 @@ public class ProductManager {
     
     public Product getProductById(int id) {
         try {
-            Product product = PR.findById(id).orElse(null);
+            Product product = productCache.get(id);
             if (product == null) {
-                logger.warn("Product not found with id: {}", id);
-            } else {
-                logger.info("Retrieved product: {}", product.getName());
+                logger.debug("Product not found with id: {}", id);
             }
             return product;
         } catch (Exception e) {
@@ -135,4 +214,28 @@ public class ProductManager {
             throw new RuntimeException("Error retrieving product", e);
         }
     }
-}
\ No newline at end of file
+
+    public Map<Integer, Product> getProductsByIds(Collection<Integer> ids) {
+        return productCache.getAll(ids);
+    }
+
+    // Called by PhotoVariants once the downscaled copies of the product's photo are written
+    @Transactional
+    public void setPhotoVariants(int productId, String photoUrl, String variants) {
+        if (PR.setPhotoVariants(productId, photoUrl, variants) == 1) {
+            productCache.invalidate(productId);
+            PR.findById(productId).ifPresent(searchIndex::update);
+        }
+    }
+
+    @Transactional
+    public void markClosed(Product product) {
+        if (PR.markClosed(product.getId(), product.getExpiryDate()) == 1) {
+            productCache.invalidate(product.getId());
+        }
+    }
+
+    public Map<String, Object> getCacheStats() {
+        return productCache.getStats();
+    }
+}
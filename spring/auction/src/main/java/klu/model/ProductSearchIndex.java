@@ -0,0 +1,428 @@
+package klu.model;
+
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.PriorityQueue;
+import java.util.Set;
+import java.util.Queue;
+import java.util.TreeMap;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.locks.ReentrantReadWriteLock;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.annotation.Async;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import klu.repo.ProductRepository;
+
+// Full-text product search held in memory. Name, category and description are tokenized into one
+// inverted index (name terms count three times, category twice) and results are ranked with BM25.
+// Every query word matches the same term and, from two letters on, up to MAX_EXPANSIONS longer
+// terms starting with it; a word of four or more letters that matches nothing falls back to terms
+// within one edit (two from eight letters) that share its first letter. Scores are accumulated in
+// an array indexed by document slot, so a query costs one pass over the postings it touches.
+//
+// The index is loaded from the database once the application is up and then kept current by
+// ProductManager, which calls update and remove as its writes commit. Products written that way
+// while the load runs are skipped by the load, whose copy may have been read before the write.
+@Component
+public class ProductSearchIndex {
+
+    private static final Logger logger = LoggerFactory.getLogger(ProductSearchIndex.class);
+
+    private static final float K1 = 1.2f;
+    private static final float B = 0.75f;
+    private static final int NAME_WEIGHT = 3;
+    private static final int CATEGORY_WEIGHT = 2;
+    private static final int DESCRIPTION_WEIGHT = 1;
+    private static final float PREFIX_BOOST = 0.6f;
+    private static final float FUZZY_BOOST = 0.4f;
+    private static final int MAX_EXPANSIONS = 50;
+    private static final int LOAD_CHUNK = 5000;
+
+    private static final Set<String> STOP_WORDS = Set.of(
+        "a", "an", "and", "are", "as", "at", "be", "by", "for", "from", "in", "is", "it", "of", "on", "or",
+        "the", "this", "to", "with");
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    private final ReentrantReadWriteLock lock = new ReentrantReadWriteLock();
+
+    // Sorted so that prefix and same-first-letter lookups are range scans
+    private final TreeMap<String, Postings> terms = new TreeMap<>();
+    private final Map<Integer, Integer> slots = new HashMap<>();
+    private final ArrayDeque<Integer> freeSlots = new ArrayDeque<>();
+    private ProductSummary[] docs = new ProductSummary[1024];
+    private String[][] docTerms = new String[1024][];
+    private int[] docLengths = new int[1024];
+    private int slotCount;
+    private long totalLength;
+    private final Queue<float[]> scratch = new ConcurrentLinkedQueue<>();
+    // Ids updated or removed since load() started; null when no load is running. Guarded by the write lock.
+    private Set<Integer> writtenDuringLoad;
+
+    // Unsorted (slot, weighted term frequency) pairs; removal swaps in the last entry
+    private static final class Postings {
+        int[] slots = new int[2];
+        int[] freqs = new int[2];
+        int size;
+
+        void add(int slot, int freq) {
+            if (size == slots.length) {
+                slots = Arrays.copyOf(slots, size * 2);
+                freqs = Arrays.copyOf(freqs, size * 2);
+            }
+            slots[size] = slot;
+            freqs[size] = freq;
+            size++;
+        }
+
+        void remove(int slot) {
+            for (int i = 0; i < size; i++) {
+                if (slots[i] == slot) {
+                    size--;
+                    slots[i] = slots[size];
+                    freqs[i] = freqs[size];
+                    return;
+                }
+            }
+        }
+    }
+
+    @Async
+    @EventListener(ApplicationReadyEvent.class)
+    public void load() {
+        long started = System.currentTimeMillis();
+        lock.writeLock().lock();
+        try {
+            writtenDuringLoad = new HashSet<>();
+        } finally {
+            lock.writeLock().unlock();
+        }
+        int after = 0;
+        int loaded = 0;
+        List<Product> chunk;
+        try {
+            do {
+                chunk = productRepository.findByIdGreaterThanOrderByIdAsc(after, Limit.of(LOAD_CHUNK));
+                for (Product product : chunk) {
+                    index(product, true);
+                }
+                if (!chunk.isEmpty()) {
+                    after = chunk.get(chunk.size() - 1).getId();
+                    loaded += chunk.size();
+                }
+            } while (chunk.size() == LOAD_CHUNK);
+        } finally {
+            lock.writeLock().lock();
+            try {
+                writtenDuringLoad = null;
+            } finally {
+                lock.writeLock().unlock();
+            }
+        }
+        logger.info("Indexed {} products for search in {} ms ({} terms)", loaded,
+            System.currentTimeMillis() - started, termCount());
+    }
+
+    // Re-indexes the product once the current transaction commits, or right away outside one
+    public void update(Product product) {
+        afterCommit(() -> index(product));
+    }
+
+    public void remove(int productId) {
+        afterCommit(() -> {
+            lock.writeLock().lock();
+            try {
+                if (writtenDuringLoad != null) {
+                    writtenDuringLoad.add(productId);
+                }
+                removeLocked(productId);
+            } finally {
+                lock.writeLock().unlock();
+            }
+        });
+    }
+
+    public void index(Product product) {
+        index(product, false);
+    }
+
+    private void index(Product product, boolean fromLoad) {
+        Map<String, Integer> freqs = new HashMap<>();
+        int length = addTokens(freqs, product.getName(), NAME_WEIGHT)
+            + addTokens(freqs, product.getCategory(), CATEGORY_WEIGHT)
+            + addTokens(freqs, product.getDescription(), DESCRIPTION_WEIGHT);
+        ProductSummary summary = new ProductSummary(product.getId(), product.getName(), product.getCategory(),
+            product.getPrice(), product.getQuantity(), product.getSellerEmail(), product.getPhotoUrl(),
+            product.getPhotoVariants(), product.getExpiryDate());
+
+        lock.writeLock().lock();
+        try {
+            if (writtenDuringLoad != null) {
+                if (fromLoad && writtenDuringLoad.contains(product.getId())) {
+                    return; // the later write is already in the index
+                }
+                if (!fromLoad) {
+                    writtenDuringLoad.add(product.getId());
+                }
+            }
+            removeLocked(product.getId());
+            int slot = freeSlots.isEmpty() ? slotCount++ : freeSlots.pop();
+            if (slot == docs.length) {
+                docs = Arrays.copyOf(docs, slot * 2);
+                docTerms = Arrays.copyOf(docTerms, slot * 2);
+                docLengths = Arrays.copyOf(docLengths, slot * 2);
+            }
+            slots.put(product.getId(), slot);
+            docs[slot] = summary;
+            docLengths[slot] = length;
+            totalLength += length;
+            String[] termsOfDoc = new String[freqs.size()];
+            int i = 0;
+            for (Map.Entry<String, Integer> entry : freqs.entrySet()) {
+                terms.computeIfAbsent(entry.getKey(), term -> new Postings()).add(slot, entry.getValue());
+                termsOfDoc[i++] = entry.getKey();
+            }
+            docTerms[slot] = termsOfDoc;
+        } finally {
+            lock.writeLock().unlock();
+        }
+    }
+
+    // Best matches first; category and activeOnly filter the ranked results
+    public List<ProductSummary> search(String query, String category, boolean activeOnly, int limit) {
+        Set<String> words = new LinkedHashSet<>(tokenize(query));
+        if (words.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        lock.readLock().lock();
+        try {
+            int documents = slots.size();
+            if (documents == 0) {
+                return List.of();
+            }
+            float averageLength = (float) totalLength / documents;
+            float[] scores = borrowScores();
+            for (String word : words) {
+                boolean matched = false;
+                Postings exact = terms.get(word);
+                if (exact != null) {
+                    accumulate(scores, exact, 1f, documents, averageLength);
+                    matched = true;
+                }
+                if (word.length() >= 2) {
+                    int expansions = 0;
+                    for (Postings postings : terms.subMap(word, false, word + Character.MAX_VALUE, false).values()) {
+                        accumulate(scores, postings, PREFIX_BOOST, documents, averageLength);
+                        matched = true;
+                        if (++expansions == MAX_EXPANSIONS) {
+                            break;
+                        }
+                    }
+                }
+                if (!matched && word.length() >= 4) {
+                    int maxEdits = word.length() >= 8 ? 2 : 1;
+                    String first = word.substring(0, 1);
+                    String next = String.valueOf((char) (word.charAt(0) + 1));
+                    int expansions = 0;
+                    for (Map.Entry<String, Postings> entry : terms.subMap(first, next).entrySet()) {
+                        String term = entry.getKey();
+                        if (Math.abs(term.length() - word.length()) <= maxEdits
+                                && withinEdits(word, term, maxEdits)) {
+                            accumulate(scores, entry.getValue(), FUZZY_BOOST, documents, averageLength);
+                            if (++expansions == MAX_EXPANSIONS) {
+                                break;
+                            }
+                        }
+                    }
+                }
+            }
+
+            LocalDate today = activeOnly ? LocalDate.now() : null;
+            // Weakest first; equal scores rank by slot, so a later slot never displaces an equal one
+            PriorityQueue<Integer> best = new PriorityQueue<>(limit + 1,
+                (a, b) -> scores[a] != scores[b] ? Float.compare(scores[a], scores[b]) : Integer.compare(b, a));
+            float threshold = 0f;
+            for (int slot = 0; slot < slotCount; slot++) {
+                // Once the heap is full only scores above its weakest entry can get in
+                if (scores[slot] <= threshold) {
+                    continue;
+                }
+                ProductSummary doc = docs[slot];
+                if (category != null && !category.equals(doc.getCategory())) {
+                    continue;
+                }
+                if (today != null && doc.getExpiryDate() != null && doc.getExpiryDate().isBefore(today)) {
+                    continue;
+                }
+                best.add(slot);
+                if (best.size() > limit) {
+                    best.poll();
+                }
+                if (best.size() == limit) {
+                    threshold = scores[best.peek()];
+                }
+            }
+            List<ProductSummary> results = new ArrayList<>(best.size());
+            while (!best.isEmpty()) {
+                results.add(docs[best.poll()]);
+            }
+            Arrays.fill(scores, 0, slotCount, 0f);
+            scratch.offer(scores);
+            return results.reversed();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    // Score arrays are large enough to be costly to allocate per query, so cleared ones are reused
+    private float[] borrowScores() {
+        float[] scores = scratch.poll();
+        while (scores != null && scores.length < slotCount) {
+            scores = scratch.poll();
+        }
+        return scores != null ? scores : new float[docs.length];
+    }
+
+    public int size() {
+        lock.readLock().lock();
+        try {
+            return slots.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private int termCount() {
+        lock.readLock().lock();
+        try {
+            return terms.size();
+        } finally {
+            lock.readLock().unlock();
+        }
+    }
+
+    private void accumulate(float[] scores, Postings postings, float boost, int documents, float averageLength) {
+        float idf = (float) Math.log(1 + (documents - postings.size + 0.5) / (postings.size + 0.5));
+        float weight = boost * idf * (K1 + 1);
+        float base = K1 * (1 - B);
+        float perLength = K1 * B / averageLength;
+        int[] slots = postings.slots;
+        int[] freqs = postings.freqs;
+        for (int i = 0; i < postings.size; i++) {
+            int slot = slots[i];
+            int tf = freqs[i];
+            scores[slot] += weight * tf / (tf + base + perLength * docLengths[slot]);
+        }
+    }
+
+    private void removeLocked(int productId) {
+        Integer slot = slots.remove(productId);
+        if (slot == null) {
+            return;
+        }
+        for (String term : docTerms[slot]) {
+            Postings postings = terms.get(term);
+            postings.remove(slot);
+            if (postings.size == 0) {
+                terms.remove(term);
+            }
+        }
+        totalLength -= docLengths[slot];
+        docs[slot] = null;
+        docTerms[slot] = null;
+        docLengths[slot] = 0;
+        freeSlots.push(slot);
+    }
+
+    private static int addTokens(Map<String, Integer> freqs, String text, int weight) {
+        int count = 0;
+        for (String token : tokenize(text)) {
+            freqs.merge(token, weight, Integer::sum);
+            count += weight;
+        }
+        return count;
+    }
+
+    // Lower-cased letter and digit runs with accents removed, minus stop words
+    static List<String> tokenize(String text) {
+        if (text == null || text.isBlank()) {
+            return List.of();
+        }
+        String folded = Normalizer.normalize(text, Normalizer.Form.NFKD).toLowerCase();
+        List<String> tokens = new ArrayList<>();
+        StringBuilder token = new StringBuilder();
+        for (int i = 0; i <= folded.length(); i++) {
+            char c = i < folded.length() ? folded.charAt(i) : ' ';
+            if (Character.isLetterOrDigit(c)) {
+                token.append(c);
+            } else if (Character.getType(c) != Character.NON_SPACING_MARK && !token.isEmpty()) {
+                String word = token.toString();
+                if (!STOP_WORDS.contains(word)) {
+                    tokens.add(word);
+                }
+                token.setLength(0);
+            }
+        }
+        return tokens;
+    }
+
+    // Levenshtein distance of at most maxEdits, computed on a band around the diagonal
+    static boolean withinEdits(String a, String b, int maxEdits) {
+        int[] previous = new int[b.length() + 1];
+        int[] current = new int[b.length() + 1];
+        for (int j = 0; j <= b.length(); j++) {
+            previous[j] = j;
+        }
+        for (int i = 1; i <= a.length(); i++) {
+            Arrays.fill(current, maxEdits + 1);
+            current[0] = i;
+            int from = Math.max(1, i - maxEdits);
+            int to = Math.min(b.length(), i + maxEdits);
+            int rowMin = current[0];
+            for (int j = from; j <= to; j++) {
+                int cost = a.charAt(i - 1) == b.charAt(j - 1) ? 0 : 1;
+                current[j] = Math.min(Math.min(previous[j] + 1, current[j - 1] + 1), previous[j - 1] + cost);
+                rowMin = Math.min(rowMin, current[j]);
+            }
+            if (rowMin > maxEdits) {
+                return false;
+            }
+            int[] swap = previous;
+            previous = current;
+            current = swap;
+        }
+        return previous[b.length()] <= maxEdits;
+    }
+
+    private static void afterCommit(Runnable action) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    action.run();
+                }
+            });
+        } else {
+            action.run();
+        }
+    }
+}
@@ -0,0 +1,71 @@
+package klu.model;
+
+import java.time.LocalDate;
+import java.util.Map;
+
+import com.fasterxml.jackson.annotation.JsonFormat;
+
+// Catalog listing row: everything a product card shows, without the description
+public class ProductSummary {
+
+    private int id;
+    private String name;
+    private String category;
+    private double price;
+    private int quantity;
+    private String sellerEmail;
+    private String photoUrl;
+    private String photoVariants;
+
+    @JsonFormat(pattern = "yyyy-MM-dd")
+    private LocalDate expiryDate;
+
+    public ProductSummary(int id, String name, String category, double price, int quantity, String sellerEmail,
+                          String photoUrl, String photoVariants, LocalDate expiryDate) {
+        this.id = id;
+        this.name = name;
+        this.category = category;
+        this.price = price;
+        this.quantity = quantity;
+        this.sellerEmail = sellerEmail;
+        this.photoUrl = photoUrl;
+        this.photoVariants = photoVariants;
+        this.expiryDate = expiryDate;
+    }
+
+    public int getId() {
+        return id;
+    }
+
+    public String getName() {
+        return name;
+    }
+
+    public String getCategory() {
+        return category;
+    }
+
+    public double getPrice() {
+        return price;
+    }
+
+    public int getQuantity() {
+        return quantity;
+    }
+
+    public String getSellerEmail() {
+        return sellerEmail;
+    }
+
+    public String getPhotoUrl() {
+        return photoUrl;
+    }
+
+    public Map<String, String> getPhotoUrls() {
+        return PhotoVariants.urls(photoUrl, photoVariants);
+    }
+
+    public LocalDate getExpiryDate() {
+        return expiryDate;
+    }
+}
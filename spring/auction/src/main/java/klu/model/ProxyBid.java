@@ -0,0 +1,70 @@
+package klu.model;
+
+import jakarta.persistence.*;
+import java.time.LocalDateTime;
+
+// A standing "bid up to maxAmount" instruction, resolved by BidManager against competing bids
+@Entity
+@Table(name = "proxy_bids")
+public class ProxyBid {
+
+    @Id
+    @GeneratedValue(strategy = GenerationType.TABLE, generator = "proxy_bid_id")
+    @TableGenerator(name = "proxy_bid_id", table = "id_blocks", pkColumnName = "sequence_name",
+                    valueColumnName = "next_val", pkColumnValue = "proxy_bids", allocationSize = 100)
+    private int id;
+
+    private int productId;
+    private String buyerEmail;
+    private double maxAmount;
+    private LocalDateTime createdAt;
+    private boolean active;
+
+    public int getId() {
+        return id;
+    }
+
+    public void setId(int id) {
+        this.id = id;
+    }
+
+    public int getProductId() {
+        return productId;
+    }
+
+    public void setProductId(int productId) {
+        this.productId = productId;
+    }
+
+    public String getBuyerEmail() {
+        return buyerEmail;
+    }
+
+    public void setBuyerEmail(String buyerEmail) {
+        this.buyerEmail = buyerEmail;
+    }
+
+    public double getMaxAmount() {
+        return maxAmount;
+    }
+
+    public void setMaxAmount(double maxAmount) {
+        this.maxAmount = maxAmount;
+    }
+
+    public LocalDateTime getCreatedAt() {
+        return createdAt;
+    }
+
+    public void setCreatedAt(LocalDateTime createdAt) {
+        this.createdAt = createdAt;
+    }
+
+    public boolean isActive() {
+        return active;
+    }
+
+    public void setActive(boolean active) {
+        this.active = active;
+    }
+}
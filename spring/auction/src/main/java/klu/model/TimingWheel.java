@@ -0,0 +1,200 @@
+package klu.model;
+
+import java.util.Arrays;
+import java.util.function.IntConsumer;
+
+// Hashed timing wheel keyed by int ids. Entries live in parallel primitive arrays (no object per
+// entry) and are found for cancellation through an open-addressed index, so a pending entry costs
+// roughly 30 bytes. Scheduling and cancelling are O(1); advancing one tick only visits one bucket.
+// Not thread-safe: callers guard it with their own lock.
+class TimingWheel {
+
+    private static final int NONE = -1;
+
+    private final long tickMs;
+    private final int bucketMask;
+    private final int[] heads;
+
+    // Entry slab
+    private int[] ids;
+    private long[] ticks;
+    private int[] next;
+    private int[] prev;
+    private int freeHead = NONE;
+    private int used;
+    private int size;
+
+    // id -> slot + 1 (0 = empty)
+    private int[] index;
+
+    private long currentTick;
+
+    TimingWheel(long tickMs, int buckets, long nowMs) {
+        int bucketCount = Integer.highestOneBit(Math.max(buckets - 1, 1)) << 1;
+        this.tickMs = tickMs;
+        this.bucketMask = bucketCount - 1;
+        this.heads = new int[bucketCount];
+        Arrays.fill(heads, NONE);
+        this.ids = new int[1024];
+        this.ticks = new long[1024];
+        this.next = new int[1024];
+        this.prev = new int[1024];
+        this.index = new int[2048];
+        this.currentTick = nowMs / tickMs;
+    }
+
+    int size() {
+        return size;
+    }
+
+    void schedule(int id, long deadlineMs) {
+        cancel(id);
+        // Anything already due fires on the next tick
+        long tick = Math.max(deadlineMs / tickMs, currentTick + 1);
+        int slot = allocate();
+        ids[slot] = id;
+        ticks[slot] = tick;
+        link(slot);
+        indexPut(slot);
+        size++;
+    }
+
+    boolean cancel(int id) {
+        int slot = indexRemove(id);
+        if (slot == NONE) {
+            return false;
+        }
+        unlink(slot);
+        release(slot);
+        size--;
+        return true;
+    }
+
+    // Fires every entry due at or before nowMs
+    void advance(long nowMs, IntConsumer expired) {
+        long target = nowMs / tickMs;
+        if (target <= currentTick) {
+            return;
+        }
+        // After a long pause one full revolution already visits every bucket
+        long steps = Math.min(target - currentTick, heads.length);
+        for (long i = 1; i <= steps; i++) {
+            int bucket = (int) ((currentTick + i) & bucketMask);
+            int slot = heads[bucket];
+            while (slot != NONE) {
+                int following = next[slot];
+                if (ticks[slot] <= target) {
+                    int id = ids[slot];
+                    indexRemove(id);
+                    unlink(slot);
+                    release(slot);
+                    size--;
+                    expired.accept(id);
+                }
+                slot = following;
+            }
+        }
+        currentTick = target;
+    }
+
+    private void link(int slot) {
+        int bucket = (int) (ticks[slot] & bucketMask);
+        int head = heads[bucket];
+        next[slot] = head;
+        prev[slot] = NONE;
+        if (head != NONE) {
+            prev[head] = slot;
+        }
+        heads[bucket] = slot;
+    }
+
+    private void unlink(int slot) {
+        int before = prev[slot];
+        int after = next[slot];
+        if (before == NONE) {
+            heads[(int) (ticks[slot] & bucketMask)] = after;
+        } else {
+            next[before] = after;
+        }
+        if (after != NONE) {
+            prev[after] = before;
+        }
+    }
+
+    private int allocate() {
+        if (freeHead != NONE) {
+            int slot = freeHead;
+            freeHead = next[slot];
+            return slot;
+        }
+        if (used == ids.length) {
+            int capacity = ids.length * 2;
+            ids = Arrays.copyOf(ids, capacity);
+            ticks = Arrays.copyOf(ticks, capacity);
+            next = Arrays.copyOf(next, capacity);
+            prev = Arrays.copyOf(prev, capacity);
+        }
+        return used++;
+    }
+
+    private void release(int slot) {
+        next[slot] = freeHead;
+        freeHead = slot;
+    }
+
+    private int home(int id) {
+        int h = id * 0x9E3779B9;
+        return (h ^ (h >>> 16)) & (index.length - 1);
+    }
+
+    private void indexPut(int slot) {
+        // Keep the load factor under one half
+        if ((size + 1) * 2 > index.length) {
+            rehash(index.length * 2);
+        }
+        int i = home(ids[slot]);
+        while (index[i] != 0) {
+            i = (i + 1) & (index.length - 1);
+        }
+        index[i] = slot + 1;
+    }
+
+    private int indexRemove(int id) {
+        int mask = index.length - 1;
+        int i = home(id);
+        while (index[i] != 0) {
+            int slot = index[i] - 1;
+            if (ids[slot] == id) {
+                // Backward-shift deletion keeps probe chains intact without tombstones
+                int hole = i;
+                int j = (i + 1) & mask;
+                while (index[j] != 0) {
+                    int h = home(ids[index[j] - 1]);
+                    if (((j - h) & mask) >= ((j - hole) & mask)) {
+                        index[hole] = index[j];
+                        hole = j;
+                    }
+                    j = (j + 1) & mask;
+                }
+                index[hole] = 0;
+                return slot;
+            }
+            i = (i + 1) & mask;
+        }
+        return NONE;
+    }
+
+    private void rehash(int capacity) {
+        int[] old = index;
+        index = new int[capacity];
+        for (int entry : old) {
+            if (entry != 0) {
+                int i = home(ids[entry - 1]);
+                while (index[i] != 0) {
+                    i = (i + 1) & (capacity - 1);
+                }
+                index[i] = entry;
+            }
+        }
+    }
+}
@@ -0,0 +1,105 @@
+package klu.model;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import klu.repo.NotificationRepository;
+
+// Unread notification count per user for the notification bell. A user's count is read from the
+// database on first use, then kept current by the code that creates and marks notifications, and
+// dropped after sitting unread-idle-ms without a lookup. Changes for users without a counter are
+// ignored; their next lookup counts from the database. The counter is put in place before the
+// count query runs, so changes committed while it loads are added to the loaded value. A change
+// that commits just before the query and is applied just after it is counted twice; counters are
+// therefore recounted once they are unread-max-age-ms old, even while the bell keeps polling.
+@Component
+public class UnreadCounters {
+
+    private static final Logger logger = LoggerFactory.getLogger(UnreadCounters.class);
+
+    @Autowired
+    private NotificationRepository notificationRepository;
+
+    @Value("${auction.notifications.unread-idle-ms:600000}")
+    private long idleMs;
+
+    @Value("${auction.notifications.unread-max-age-ms:300000}")
+    private long maxAgeMs;
+
+    private final ConcurrentHashMap<String, Counter> counters = new ConcurrentHashMap<>();
+
+    private static final class Counter {
+        // Changes applied since the counter was created, plus the loaded count once known
+        final AtomicLong unread = new AtomicLong();
+        final CompletableFuture<Void> loaded = new CompletableFuture<>();
+        final long createdAt = System.currentTimeMillis();
+        volatile long lastRead = createdAt;
+    }
+
+    public long get(String userEmail) {
+        Counter counter = counters.get(userEmail);
+        if (counter == null || System.currentTimeMillis() - counter.createdAt >= maxAgeMs) {
+            counter = load(userEmail, counter);
+        }
+        // Another lookup may still be counting
+        counter.loaded.join();
+        counter.lastRead = System.currentTimeMillis();
+        return Math.max(0, counter.unread.get());
+    }
+
+    private Counter load(String userEmail, Counter stale) {
+        Counter fresh = new Counter();
+        boolean installed = stale == null
+            ? counters.putIfAbsent(userEmail, fresh) == null
+            : counters.replace(userEmail, stale, fresh);
+        if (!installed) {
+            Counter current = counters.get(userEmail);
+            return current != null ? current : load(userEmail, null);
+        }
+        try {
+            fresh.unread.addAndGet(notificationRepository.countByUserEmailAndReadFalse(userEmail));
+            fresh.loaded.complete(null);
+            return fresh;
+        } catch (RuntimeException e) {
+            counters.remove(userEmail, fresh);
+            fresh.loaded.completeExceptionally(e);
+            throw e;
+        }
+    }
+
+    // Applies a committed change to the user's unread count
+    public void add(String userEmail, long delta) {
+        Counter counter = counters.get(userEmail);
+        if (counter != null) {
+            counter.unread.addAndGet(delta);
+        }
+    }
+
+    // For changes whose effect on the count is not known, e.g. deletes; the next lookup recounts
+    public void invalidate(String userEmail) {
+        counters.remove(userEmail);
+    }
+
+    public void invalidateAll() {
+        counters.clear();
+    }
+
+    @Scheduled(fixedDelayString = "${auction.notifications.unread-evict-interval-ms:60000}")
+    public void evictIdle() {
+        long cutoff = System.currentTimeMillis() - idleMs;
+        int before = counters.size();
+        counters.values().removeIf(counter -> counter.lastRead < cutoff);
+        int evicted = before - counters.size();
+        if (evicted > 0) {
+            logger.debug("Evicted {} idle unread counters, {} remain", evicted, counters.size());
+        }
+    }
+}
@@ -1,15 +1,62 @@
 package klu.model;
 
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+
+import org.slf4j.Logger;
+import org.slf4j.LoggerFactory;
 import org.springframework.beans.factory.annotation.Autowired;
 import org.springframework.stereotype.Service;
+
+import jakarta.annotation.PostConstruct;
+import klu.repo.OrderRepository;
 import klu.repo.WalletRepository;
 
 @Service
 public class WalletManager {
 
+    private static final Logger logger = LoggerFactory.getLogger(WalletManager.class);
+
     @Autowired
     WalletRepository WR;
 
+    @Autowired
+    BidBook bidBook;
+
+    @Autowired
+    OrderRepository orderRepo;
+
+    // Reservation ledger: every leading bid holds funds until the user is outbid or the
+    // auction is settled by an order. Amounts are kept in cents so checks are plain CAS loops.
+    private final ConcurrentHashMap<String, Account> accounts = new ConcurrentHashMap<>();
+
+    private static final class Account {
+        final AtomicLong balance;
+        final AtomicLong reserved = new AtomicLong();
+        final ConcurrentHashMap<Integer, Long> holds = new ConcurrentHashMap<>(); // productId -> cents
+
+        Account(long balance) {
+            this.balance = new AtomicLong(balance);
+        }
+    }
+
+    @PostConstruct
+    public void rebuildLedger() {
+        // Holds are not stored: they are exactly the leading bids of auctions without an order,
+        // since placing the order paid for the winning bid
+        for (Wallet wallet : WR.findAll()) {
+            accounts.put(wallet.getEmail(), new Account(toCents(wallet.getBalance())));
+        }
+        Set<Integer> settled = orderRepo.findOrderedProductIds();
+        for (Bid leader : bidBook.getLeaders()) {
+            if (!settled.contains(leader.getProductId())) {
+                restoreHold(leader.getBuyerEmail(), leader.getProductId(), leader.getBidAmount());
+            }
+        }
+        logger.info("Wallet ledger rebuilt for {} accounts", accounts.size());
+    }
+
     public String addBalance(String email, double amount) {
         Wallet wallet = WR.findById(email).orElse(null);
 
@@ -22,6 +69,7 @@ public class WalletManager {
         }
 
         WR.save(wallet);
+        account(email).balance.set(toCents(wallet.getBalance()));
         return "200::Balance Added";
     }
 
@@ -29,14 +77,49 @@ public class WalletManager {
         return WR.getBalanceByEmail(email);
     }
 
+    // Balance not held by leading bids
+    public double getAvailableBalance(String email) {
+        Account account = account(email);
+        return (account.balance.get() - account.reserved.get()) / 100.0;
+    }
+
+    // What the user could hold on one product: free funds plus what they already hold there
+    public double getAvailableFor(String email, int productId) {
+        Account account = account(email);
+        long hold = account.holds.getOrDefault(productId, 0L);
+        return (account.balance.get() - account.reserved.get() + hold) / 100.0;
+    }
+
+    // Only funds not held by leading bids can be spent
     public String deductBalance(String email, double amount) {
+        return deductBalance(email, amount, null);
+    }
+
+    // As above, but the hold on settledProductId may pay for it: the winning bid's funds settle
+    // its order. The hold itself stays until the caller releases it.
+    public String deductBalance(String email, double amount, Integer settledProductId) {
         Wallet wallet = WR.findById(email).orElse(null);
-        if (wallet == null || wallet.getBalance() < amount) {
+        if (wallet == null) {
+            return "403::Insufficient Balance";
+        }
+        Account account = account(email);
+        long cents = toCents(amount);
+        // Lowers the balance first and re-reads the holds; tryReserve does the reverse, so when
+        // the two race at least one of them sees the other and backs out
+        long settled = settledProductId == null ? 0 : account.holds.getOrDefault(settledProductId, 0L);
+        long balance = account.balance.addAndGet(-cents);
+        if (balance - account.reserved.get() + settled < 0) {
+            account.balance.addAndGet(cents);
             return "403::Insufficient Balance";
         }
 
-        wallet.setBalance(wallet.getBalance() - amount);
-        WR.save(wallet);
+        try {
+            wallet.setBalance(wallet.getBalance() - amount);
+            WR.save(wallet);
+        } catch (RuntimeException e) {
+            account.balance.addAndGet(cents);
+            throw e;
+        }
         return "200::Balance Deducted";
     }
 
@@ -51,6 +134,65 @@ public class WalletManager {
         }
 
         WR.save(wallet);
+        account(email).balance.set(toCents(wallet.getBalance()));
         return "200::Balance Credited";
     }
+
+    // Holds funds for a leading bid, replacing the user's previous hold on the same product.
+    // Callers serialize per product, so only the cross-product total needs the CAS loop.
+    // Deductions change the balance concurrently, so the hold is checked again once it is made.
+    public boolean tryReserve(String email, int productId, double amount) {
+        Account account = account(email);
+        long hold = toCents(amount);
+        long previousHold = account.holds.getOrDefault(productId, 0L);
+        while (true) {
+            long reserved = account.reserved.get();
+            long next = reserved - previousHold + hold;
+            if (account.balance.get() - next < 0) {
+                return false;
+            }
+            if (account.reserved.compareAndSet(reserved, next)) {
+                if (next > reserved && account.balance.get() - account.reserved.get() < 0) {
+                    // A deduction lowered the balance at the same time
+                    account.reserved.addAndGet(reserved - next);
+                    return false;
+                }
+                account.holds.put(productId, hold);
+                return true;
+            }
+        }
+    }
+
+    public void release(String email, int productId) {
+        Account account = accounts.get(email);
+        if (account == null) {
+            return;
+        }
+        Long hold = account.holds.remove(productId);
+        if (hold != null) {
+            account.reserved.addAndGet(-hold);
+        }
+    }
+
+    // Puts back a hold without a balance check (ledger rebuild and failed bid writes)
+    public void restoreHold(String email, int productId, double amount) {
+        Account account = account(email);
+        long hold = toCents(amount);
+        Long previous = account.holds.put(productId, hold);
+        account.reserved.addAndGet(hold - (previous == null ? 0 : previous));
+    }
+
+    private Account account(String email) {
+        Account account = accounts.get(email);
+        if (account != null) {
+            return account;
+        }
+        // Loaded before computeIfAbsent so no query runs while the map bin is locked
+        long balance = WR.findById(email).map(wallet -> toCents(wallet.getBalance())).orElse(0L);
+        return accounts.computeIfAbsent(email, e -> new Account(balance));
+    }
+
+    private static long toCents(double amount) {
+        return Math.round(amount * 100);
+    }
 }
@@ -1,16 +1,49 @@
 package klu.repo;
 
+import java.time.LocalDateTime;
 import java.util.List;
 
+import org.springframework.data.domain.Limit;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 
 import klu.model.Bid;
+import klu.model.BidActivity;
+import klu.model.BidHistoryEntry;
+import klu.model.BuyerBidSummary;
 
 public interface BidRepository extends JpaRepository<Bid, Integer> {
 
     List<Bid> findByProductId(int productId);
 
-    @Query("SELECT b FROM Bid b WHERE b.productId = :productId ORDER BY b.bidAmount DESC")
-    List<Bid> findHighestBidByProductId(int productId);
+    @Query("SELECT b FROM Bid b WHERE b.bidAmount = " +
+           "(SELECT MAX(b2.bidAmount) FROM Bid b2 WHERE b2.productId = b.productId)")
+    List<Bid> findLeadingBids();
+
+    @Query("SELECT b.productId AS productId, COUNT(b) AS bidCount, MAX(b.bidTime) AS lastBidTime " +
+           "FROM Bid b GROUP BY b.productId")
+    List<BidActivity> findBidActivity();
+
+    @Query("SELECT COALESCE(MAX(b.id), 0) FROM Bid b")
+    int findMaxId();
+
+    // Served by idx_bids_buyer_product, most recently active auctions first
+    @Query(value = "SELECT b.productId AS productId, MAX(b.bidAmount) AS bestAmount, MAX(b.bidTime) AS lastBidTime " +
+                   "FROM Bid b WHERE b.buyerEmail = :email GROUP BY b.productId ORDER BY MAX(b.bidTime) DESC",
+           countQuery = "SELECT COUNT(DISTINCT b.productId) FROM Bid b WHERE b.buyerEmail = :email")
+    Page<BuyerBidSummary> findBidSummariesByBuyerEmail(@Param("email") String email, Pageable pageable);
+
+    // Keyset pages over idx_bids_product_time, newest first
+    @Query("SELECT new klu.model.BidHistoryEntry(b.id, b.bidAmount, b.buyerEmail, b.bidTime) FROM Bid b " +
+           "WHERE b.productId = :productId ORDER BY b.bidTime DESC, b.id DESC")
+    List<BidHistoryEntry> findHistory(@Param("productId") int productId, Limit limit);
+
+    @Query("SELECT new klu.model.BidHistoryEntry(b.id, b.bidAmount, b.buyerEmail, b.bidTime) FROM Bid b " +
+           "WHERE b.productId = :productId AND (b.bidTime < :bidTime OR (b.bidTime = :bidTime AND b.id < :id)) " +
+           "ORDER BY b.bidTime DESC, b.id DESC")
+    List<BidHistoryEntry> findHistoryBefore(@Param("productId") int productId, @Param("bidTime") LocalDateTime bidTime,
+                                            @Param("id") int id, Limit limit);
 }
@@ -0,0 +1,14 @@
+package klu.repo;
+
+import java.util.List;
+
+import org.springframework.data.domain.Limit;
+import org.springframework.data.jpa.repository.JpaRepository;
+
+import klu.model.NotificationEvent;
+
+public interface NotificationEventRepository extends JpaRepository<NotificationEvent, Integer> {
+
+    // Undelivered events in id order, one chunk at a time
+    List<NotificationEvent> findByIdGreaterThanOrderByIdAsc(int id, Limit limit);
+}
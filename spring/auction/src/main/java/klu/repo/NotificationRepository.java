@@ -1,14 +1,90 @@
 package klu.repo;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDateTime;
 import java.util.List;
 import klu.model.Notification;
 
 public interface NotificationRepository extends JpaRepository<Notification, Integer> {
-    List<Notification> findByUserEmailOrderByCreatedAtDesc(String userEmail);
     List<Notification> findByUserEmailAndReadFalseOrderByCreatedAtDesc(String userEmail);
     long countByUserEmailAndReadFalse(String userEmail);
-}
 
+    // Keyset pages over idx_notifications_user_time, newest first
+    @Query("SELECT n FROM Notification n WHERE n.userEmail = :email ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findPage(@Param("email") String email, Limit limit);
+
+    @Query("SELECT n FROM Notification n WHERE n.userEmail = :email " +
+           "AND (n.createdAt < :createdAt OR (n.createdAt = :createdAt AND n.id < :id)) " +
+           "ORDER BY n.createdAt DESC, n.id DESC")
+    List<Notification> findPageBefore(@Param("email") String email, @Param("createdAt") LocalDateTime createdAt,
+                                      @Param("id") int id, Limit limit);
+
+    // Folds a newer event into a notification the user has not read yet
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.message = :message, n.createdAt = :createdAt WHERE n.id = :id AND n.read = false")
+    int coalesce(@Param("id") int id, @Param("message") String message, @Param("createdAt") LocalDateTime createdAt);
+
+    // Bulk operations run in chunks: the ids of the next chunk are looked up first, then one
+    // statement updates or deletes the matching rows up to the last of those ids.
+    // A null type or productId matches any value; the email is always required, and only the
+    // OlderThan statements (the admin clean-up) cover every user.
+
+    @Query("SELECT n.id FROM Notification n WHERE n.userEmail = :email AND n.read = false " +
+           "AND (:type IS NULL OR n.type = :type) AND (:productId IS NULL OR n.productId = :productId) " +
+           "AND n.id > :after ORDER BY n.id")
+    List<Integer> findUnreadIds(@Param("email") String email, @Param("type") String type,
+                                @Param("productId") Integer productId, @Param("after") int after, Limit limit);
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE Notification n SET n.read = true WHERE n.userEmail = :email AND n.read = false " +
+           "AND (:type IS NULL OR n.type = :type) AND (:productId IS NULL OR n.productId = :productId) " +
+           "AND n.id > :after AND n.id <= :upTo")
+    int markReadInRange(@Param("email") String email, @Param("type") String type,
+                        @Param("productId") Integer productId, @Param("after") int after, @Param("upTo") int upTo);
 
+    @Query("SELECT n.id FROM Notification n WHERE n.userEmail = :email " +
+           "AND (:type IS NULL OR n.type = :type) AND (:productId IS NULL OR n.productId = :productId) " +
+           "AND n.createdAt < :before AND n.id > :after ORDER BY n.id")
+    List<Integer> findIdsBefore(@Param("email") String email, @Param("type") String type,
+                                @Param("productId") Integer productId, @Param("before") LocalDateTime before,
+                                @Param("after") int after, Limit limit);
 
+    @Query("SELECT n.id FROM Notification n WHERE n.createdAt < :before AND n.id > :after ORDER BY n.id")
+    List<Integer> findIdsOlderThan(@Param("before") LocalDateTime before, @Param("after") int after, Limit limit);
+
+    @Query("SELECT n.id FROM Notification n WHERE n.read = true AND n.createdAt < :before AND n.id > :after ORDER BY n.id")
+    List<Integer> findArchivableIds(@Param("before") LocalDateTime before, @Param("after") int after, Limit limit);
+
+    // Copies read notifications into the archive; run together with deleteArchivedInRange
+    @Modifying
+    @Query("INSERT INTO ArchivedNotification (id, userEmail, message, type, createdAt, productId) " +
+           "SELECT n.id, n.userEmail, n.message, n.type, n.createdAt, n.productId FROM Notification n " +
+           "WHERE n.read = true AND n.createdAt < :before AND n.id > :after AND n.id <= :upTo")
+    int archiveInRange(@Param("before") LocalDateTime before, @Param("after") int after, @Param("upTo") int upTo);
+
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.read = true AND n.createdAt < :before AND n.id > :after AND n.id <= :upTo")
+    int deleteArchivedInRange(@Param("before") LocalDateTime before, @Param("after") int after, @Param("upTo") int upTo);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.userEmail = :email " +
+           "AND (:type IS NULL OR n.type = :type) AND (:productId IS NULL OR n.productId = :productId) " +
+           "AND n.createdAt < :before AND n.id > :after AND n.id <= :upTo")
+    int deleteInRange(@Param("email") String email, @Param("type") String type,
+                      @Param("productId") Integer productId, @Param("before") LocalDateTime before,
+                      @Param("after") int after, @Param("upTo") int upTo);
+
+    @Transactional
+    @Modifying
+    @Query("DELETE FROM Notification n WHERE n.createdAt < :before AND n.id > :after AND n.id <= :upTo")
+    int deleteOlderThanInRange(@Param("before") LocalDateTime before, @Param("after") int after, @Param("upTo") int upTo);
+}
@@ -1,9 +1,14 @@
 package klu.repo;
 
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
 import java.util.List;
+import java.util.Set;
 import klu.model.Order;
 
 public interface OrderRepository extends JpaRepository<Order, Integer> {
     List<Order> findByBuyerEmail(String email);
+
+    @Query("SELECT DISTINCT o.productId FROM Order o")
+    Set<Integer> findOrderedProductIds();
 }
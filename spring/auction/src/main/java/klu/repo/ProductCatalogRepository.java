@@ -0,0 +1,13 @@
+package klu.repo;
+
+import java.util.List;
+
+import klu.model.CatalogQuery;
+import klu.model.ProductSummary;
+
+public interface ProductCatalogRepository {
+
+    // Up to limit products matching the query in its order, starting after the product whose sort
+    // key and id are given (afterKey is the price or expiry date for those orders, ignored for NEWEST)
+    List<ProductSummary> findCatalog(CatalogQuery query, Object afterKey, Integer afterId, int limit);
+}
@@ -0,0 +1,87 @@
+package klu.repo;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+
+import jakarta.persistence.EntityManager;
+import jakarta.persistence.PersistenceContext;
+import jakarta.persistence.criteria.CriteriaBuilder;
+import jakarta.persistence.criteria.CriteriaQuery;
+import jakarta.persistence.criteria.Order;
+import jakarta.persistence.criteria.Path;
+import jakarta.persistence.criteria.Predicate;
+import jakarta.persistence.criteria.Root;
+import klu.model.CatalogQuery;
+import klu.model.Product;
+import klu.model.ProductSummary;
+
+// Catalog listings are built with the Criteria API since filters and order vary per request. Each
+// order continues from the last row of the previous page (keyset), so deep pages cost the same as
+// the first one, and only the ProductSummary columns are selected.
+public class ProductCatalogRepositoryImpl implements ProductCatalogRepository {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Override
+    public List<ProductSummary> findCatalog(CatalogQuery query, Object afterKey, Integer afterId, int limit) {
+        CriteriaBuilder cb = entityManager.getCriteriaBuilder();
+        CriteriaQuery<ProductSummary> cq = cb.createQuery(ProductSummary.class);
+        Root<Product> p = cq.from(Product.class);
+        cq.select(cb.construct(ProductSummary.class, p.get("id"), p.get("name"), p.get("category"), p.get("price"),
+            p.get("quantity"), p.get("sellerEmail"), p.get("photoUrl"), p.get("photoVariants"), p.get("expiryDate")));
+
+        List<Predicate> where = new ArrayList<>();
+        if (query.category() != null) {
+            where.add(cb.equal(p.get("category"), query.category()));
+        }
+        if (query.sellerEmail() != null) {
+            where.add(cb.equal(p.get("sellerEmail"), query.sellerEmail()));
+        }
+        if (query.minPrice() != null) {
+            where.add(cb.ge(p.get("price"), query.minPrice()));
+        }
+        if (query.maxPrice() != null) {
+            where.add(cb.le(p.get("price"), query.maxPrice()));
+        }
+        if (query.activeOnly()) {
+            // Open until the end of the expiry day, as in AuctionCloseScheduler.isClosed
+            where.add(cb.greaterThanOrEqualTo(p.get("expiryDate"), LocalDate.now()));
+        }
+
+        Path<Integer> id = p.get("id");
+        switch (query.sort()) {
+            case NEWEST -> {
+                if (afterId != null) {
+                    where.add(cb.lt(id, afterId));
+                }
+                cq.orderBy(cb.desc(id));
+            }
+            case PRICE_ASC, PRICE_DESC -> {
+                Path<Double> price = p.get("price");
+                boolean ascending = query.sort() == CatalogQuery.Sort.PRICE_ASC;
+                if (afterId != null) {
+                    Double key = (Double) afterKey;
+                    where.add(ascending
+                        ? cb.or(cb.gt(price, key), cb.and(cb.equal(price, key), cb.gt(id, afterId)))
+                        : cb.or(cb.lt(price, key), cb.and(cb.equal(price, key), cb.lt(id, afterId))));
+                }
+                cq.orderBy(ascending ? List.of(cb.asc(price), cb.asc(id)) : List.<Order>of(cb.desc(price), cb.desc(id)));
+            }
+            case ENDING_SOON -> {
+                Path<LocalDate> expiry = p.get("expiryDate");
+                // Products without an expiry date never end, so they are not part of this order
+                where.add(cb.isNotNull(expiry));
+                if (afterId != null) {
+                    LocalDate key = (LocalDate) afterKey;
+                    where.add(cb.or(cb.greaterThan(expiry, key), cb.and(cb.equal(expiry, key), cb.gt(id, afterId))));
+                }
+                cq.orderBy(cb.asc(expiry), cb.asc(id));
+            }
+        }
+        cq.where(where.toArray(Predicate[]::new));
+
+        return entityManager.createQuery(cq).setMaxResults(limit).getResultList();
+    }
+}
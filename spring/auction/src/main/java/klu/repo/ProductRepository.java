@@ -1,12 +1,36 @@
 package klu.repo;
 
+import org.springframework.data.domain.Limit;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import java.time.LocalDate;
 import java.util.List;
 import klu.model.Product;
+import klu.model.ProductExpiry;
 
 @Repository
-public interface ProductRepository extends JpaRepository<Product, Integer> {
+public interface ProductRepository extends JpaRepository<Product, Integer>, ProductCatalogRepository {
 	
     List<Product> findBySellerEmail(String email);
+
+    List<Product> findByIdGreaterThanOrderByIdAsc(int id, Limit limit);
+
+    // Only while the product still has the photo the variants were made from
+    @Modifying
+    @Query("UPDATE Product p SET p.photoVariants = :variants WHERE p.id = :id AND p.photoUrl = :photoUrl")
+    int setPhotoVariants(@Param("id") int id, @Param("photoUrl") String photoUrl, @Param("variants") String variants);
+
+    // Auctions whose close is still to be announced, including those that ended while the
+    // application was down; rows from before the closed flag existed count as announced once past
+    @Query("SELECT p.id AS id, p.expiryDate AS expiryDate FROM Product p WHERE p.expiryDate IS NOT NULL " +
+           "AND (p.closed = false OR (p.closed IS NULL AND p.expiryDate >= :today))")
+    List<ProductExpiry> findUnclosed(@Param("today") LocalDate today);
+
+    // Only if the expiry date is still the one that was closed
+    @Modifying
+    @Query("UPDATE Product p SET p.closed = true WHERE p.id = :id AND p.expiryDate = :expiryDate")
+    int markClosed(@Param("id") int id, @Param("expiryDate") LocalDate expiryDate);
 }
@@ -0,0 +1,21 @@
+package klu.repo;
+
+import java.util.List;
+
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.transaction.annotation.Transactional;
+
+import klu.model.ProxyBid;
+
+public interface ProxyBidRepository extends JpaRepository<ProxyBid, Integer> {
+
+    List<ProxyBid> findByActiveTrueOrderByCreatedAtAsc();
+
+    @Transactional
+    @Modifying
+    @Query("UPDATE ProxyBid p SET p.active = false WHERE p.productId = :productId AND p.active = true")
+    int deactivateByProductId(@Param("productId") int productId);
+}
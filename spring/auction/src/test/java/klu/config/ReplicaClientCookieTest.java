@@ -0,0 +1,58 @@
+package klu.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotEquals;
+import static org.junit.jupiter.api.Assertions.assertNull;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpHeaders;
+import org.springframework.mock.web.MockHttpServletRequest;
+import org.springframework.mock.web.MockHttpServletResponse;
+
+import jakarta.servlet.http.Cookie;
+
+class ReplicaClientCookieTest {
+
+	private final ReplicaClientCookie clients = new ReplicaClientCookie("test-secret");
+
+	@Test
+	void newClientGetsASignedCookieThatIdentifiesItLater() {
+		MockHttpServletResponse response = new MockHttpServletResponse();
+		String client = clients.resolve(new MockHttpServletRequest(), response);
+
+		String header = response.getHeader(HttpHeaders.SET_COOKIE);
+		assertTrue(header.startsWith(ReplicaClientCookie.NAME + "=" + client + "."));
+		assertTrue(header.contains("HttpOnly"));
+
+		String value = header.substring(header.indexOf('=') + 1, header.indexOf(';'));
+		MockHttpServletRequest next = new MockHttpServletRequest();
+		next.setCookies(new Cookie(ReplicaClientCookie.NAME, value));
+		MockHttpServletResponse nextResponse = new MockHttpServletResponse();
+		assertEquals(client, clients.resolve(next, nextResponse));
+		assertNull(nextResponse.getHeader(HttpHeaders.SET_COOKIE));
+	}
+
+	@Test
+	void clientsBehindOneAddressAreToldApart() {
+		MockHttpServletRequest first = new MockHttpServletRequest();
+		MockHttpServletRequest second = new MockHttpServletRequest();
+		second.setRemoteAddr(first.getRemoteAddr());
+
+		assertNotEquals(clients.resolve(first, new MockHttpServletResponse()),
+			clients.resolve(second, new MockHttpServletResponse()));
+	}
+
+	@Test
+	void chosenOrTamperedIdsAreReplaced() {
+		String signed = "alice." + clients.sign("alice");
+		assertEquals("alice", clients.verify(signed));
+		assertNull(clients.verify("bob." + clients.sign("alice")));
+		assertNull(clients.verify("alice"));
+		assertNull(new ReplicaClientCookie("other-secret").verify(signed));
+
+		MockHttpServletRequest request = new MockHttpServletRequest();
+		request.setCookies(new Cookie(ReplicaClientCookie.NAME, "bob.forged"));
+		assertNotEquals("bob", clients.resolve(request, new MockHttpServletResponse()));
+	}
+}
@@ -0,0 +1,118 @@
+package klu.config;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import javax.sql.DataSource;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DataSourceTransactionManager;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+import org.springframework.jdbc.datasource.LazyConnectionDataSourceProxy;
+import org.springframework.transaction.support.TransactionTemplate;
+
+// Two embedded H2 databases stand in for the primary and the replica; replication is simulated
+// by writing the heartbeat row on the replica by hand
+class ReplicaRoutingDataSourceTest {
+
+	private JdbcTemplate primary;
+	private JdbcTemplate replica;
+	private ReplicaRoutingDataSource routing;
+	private JdbcTemplate jdbc;
+	private DataSourceTransactionManager transactionManager;
+
+	@BeforeEach
+	void setUp() {
+		long run = System.nanoTime();
+		DataSource primaryPool = new DriverManagerDataSource("jdbc:h2:mem:primary" + run + ";DB_CLOSE_DELAY=-1", "sa", "");
+		DataSource replicaPool = new DriverManagerDataSource("jdbc:h2:mem:replica" + run + ";DB_CLOSE_DELAY=-1", "sa", "");
+		primary = new JdbcTemplate(primaryPool);
+		replica = new JdbcTemplate(replicaPool);
+		primary.execute("CREATE TABLE node (name VARCHAR(16))");
+		primary.update("INSERT INTO node VALUES ('primary')");
+		replica.execute("CREATE TABLE node (name VARCHAR(16))");
+		replica.update("INSERT INTO node VALUES ('replica')");
+		replica.execute("CREATE TABLE replica_heartbeat (id INT PRIMARY KEY, beat_at BIGINT NOT NULL)");
+		replica.update("INSERT INTO replica_heartbeat VALUES (1, ?)", System.currentTimeMillis());
+
+		routing = new ReplicaRoutingDataSource(primaryPool, replicaPool, 1000, 200);
+		routing.afterPropertiesSet();
+		LazyConnectionDataSourceProxy dataSource = new LazyConnectionDataSourceProxy(primaryPool);
+		dataSource.setReadOnlyDataSource(routing);
+		jdbc = new JdbcTemplate(dataSource);
+		transactionManager = new DataSourceTransactionManager(dataSource);
+	}
+
+	@AfterEach
+	void tearDown() {
+		ReplicaRoutingDataSource.clearReadClient();
+		primary.execute("SHUTDOWN");
+		replica.execute("SHUTDOWN");
+	}
+
+	@Test
+	void readOnlyTransactionsOfReadRequestsUseTheReplica() {
+		ReplicaRoutingDataSource.bindReadClient("alice");
+
+		assertEquals("replica", node(true));
+		assertEquals("primary", node(false));
+	}
+
+	@Test
+	void readsOutsideRequestsUseThePrimary() {
+		assertEquals("primary", node(true));
+	}
+
+	@Test
+	void laggingReplicaFallsBackToThePrimary() {
+		ReplicaRoutingDataSource.bindReadClient("alice");
+		replica.update("UPDATE replica_heartbeat SET beat_at = ?", System.currentTimeMillis() - 5000);
+		routing.checkLag();
+
+		assertFalse(routing.isReplicaUsable());
+		assertEquals("primary", node(true));
+
+		replica.update("UPDATE replica_heartbeat SET beat_at = ?", System.currentTimeMillis());
+		routing.checkLag();
+
+		assertTrue(routing.isReplicaUsable());
+		assertEquals("replica", node(true));
+	}
+
+	@Test
+	void lagIsZeroOnceTheReplicaHasTheLastBeatAndItsAgeOtherwise() throws InterruptedException {
+		long written = primary.queryForObject("SELECT beat_at FROM replica_heartbeat", Long.class);
+		replica.update("UPDATE replica_heartbeat SET beat_at = ?", written);
+		Thread.sleep(300);
+		routing.checkLag();
+		assertEquals(0, routing.getLagMs());
+
+		// That check wrote a newer beat, which has not reached the replica
+		routing.checkLag();
+		assertTrue(routing.getLagMs() >= 300);
+	}
+
+	@Test
+	void clientReadsItsOwnWritesFromThePrimaryForAWhile() throws InterruptedException {
+		routing.recordWrite("alice");
+
+		ReplicaRoutingDataSource.bindReadClient("alice");
+		assertEquals("primary", node(true));
+		ReplicaRoutingDataSource.bindReadClient("bob");
+		assertEquals("replica", node(true));
+
+		Thread.sleep(300);
+		ReplicaRoutingDataSource.bindReadClient("alice");
+		assertEquals("replica", node(true));
+	}
+
+	private String node(boolean readOnly) {
+		TransactionTemplate transaction = new TransactionTemplate(transactionManager);
+		transaction.setReadOnly(readOnly);
+		return transaction.execute(status -> jdbc.queryForObject("SELECT name FROM node", String.class));
+	}
+}
@@ -0,0 +1,72 @@
+package klu.controller;
+
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+import static org.springframework.test.web.servlet.request.MockMvcRequestBuilders.post;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.content;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.header;
+import static org.springframework.test.web.servlet.result.MockMvcResultMatchers.status;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.test.web.servlet.MockMvc;
+import org.springframework.test.web.servlet.ResultActions;
+import org.springframework.test.web.servlet.setup.MockMvcBuilders;
+
+import klu.model.BidManager;
+import klu.model.BidRateLimiter;
+
+class BidControllerTest {
+
+	private static final String BID = "{\"productId\":7,\"buyerEmail\":\"alice@x.io\",\"bidAmount\":10}";
+
+	private BidManager bidManager;
+	private BidRateLimiter rateLimiter;
+	private MockMvc mvc;
+
+	@BeforeEach
+	void setUp() {
+		bidManager = mock(BidManager.class);
+		rateLimiter = mock(BidRateLimiter.class);
+		BidController controller = new BidController();
+		ReflectionTestUtils.setField(controller, "bidManager", bidManager);
+		ReflectionTestUtils.setField(controller, "rateLimiter", rateLimiter);
+		mvc = MockMvcBuilders.standaloneSetup(controller).build();
+	}
+
+	@Test
+	void throttledBidsGet429WithRetryAfterRoundedUpToWholeSeconds() throws Exception {
+		when(rateLimiter.tryAcquire("alice@x.io")).thenReturn(TimeUnit.MILLISECONDS.toNanos(200));
+		place()
+			.andExpect(status().isTooManyRequests())
+			.andExpect(header().string("Retry-After", "1"))
+			.andExpect(content().string("429::Too many bids, please retry in 1s"));
+
+		when(rateLimiter.tryAcquire("alice@x.io")).thenReturn(TimeUnit.MILLISECONDS.toNanos(1500));
+		place().andExpect(header().string("Retry-After", "2"));
+		verify(bidManager, never()).placeBid(any());
+	}
+
+	@Test
+	void allowedBidsArePlaced() throws Exception {
+		when(rateLimiter.tryAcquire(anyString())).thenReturn(0L);
+		when(bidManager.placeBid(any())).thenReturn("200::Bid placed successfully");
+
+		place()
+			.andExpect(status().isOk())
+			.andExpect(header().doesNotExist("Retry-After"))
+			.andExpect(content().string("200::Bid placed successfully"));
+	}
+
+	private ResultActions place() throws Exception {
+		return mvc.perform(post("/bid/place").contentType(MediaType.APPLICATION_JSON).content(BID));
+	}
+}
@@ -0,0 +1,140 @@
+package klu.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.LocalDateTime;
+import java.util.List;
+import java.util.stream.Stream;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import klu.repo.BidRepository;
+
+// A crash is simulated by closing the active segment without the snapshot a clean stop writes
+class BidJournalTest {
+
+	private static final int PRODUCT = 7;
+	private static final LocalDateTime START = LocalDateTime.of(2026, 1, 1, 12, 0);
+
+	@TempDir
+	Path dir;
+
+	private BidRepository bidRepo;
+
+	@BeforeEach
+	void setUp() {
+		bidRepo = mock(BidRepository.class);
+	}
+
+	@Test
+	void tornRecordEndsTheLogAndAppendsContinueAfterTheLastIntactOne() throws IOException {
+		BidJournal journal = start(0);
+		journal.append(List.of(bid(1, "alice@x.io", 10)), null);
+		Bid second = bid(2, "bobby@x.io", 12);
+		journal.append(List.of(second), second);
+		Bid third = bid(3, "alice@x.io", 14);
+		journal.append(List.of(third), third);
+		crash(journal);
+
+		// Records are framed as [length][crc][35-byte header + email]: damage the third one's payload
+		int frame = 8 + 35 + "alice@x.io".length();
+		try (RandomAccessFile file = new RandomAccessFile(segment().toFile(), "rw")) {
+			file.seek(2L * frame + 8 + 12);
+			file.write(0x7F);
+		}
+
+		journal = start(2);
+		ProductActivity activity = journal.getActivity(PRODUCT);
+		assertEquals(2, activity.getBidCount());
+		assertEquals(2, activity.getLeader().getId());
+
+		journal.append(List.of(third), third);
+		crash(journal);
+		journal = start(3);
+		assertEquals(3, journal.getActivity(PRODUCT).getBidCount());
+		assertEquals(14, journal.getActivity(PRODUCT).getLeader().getBidAmount());
+		verify(bidRepo, never()).findBidActivity();
+	}
+
+	@Test
+	void restartLoadsTheSnapshotAndReplaysOnlyLaterRecords() throws IOException {
+		BidJournal journal = start(0);
+		Bid first = bid(1, "alice@x.io", 10);
+		journal.append(List.of(first), first);
+		journal.append(List.of(bid(2, "bobby@x.io", 9)), null);
+		journal.stop();
+
+		journal = start(2);
+		Bid third = bid(3, "bobby@x.io", 15);
+		journal.append(List.of(third), third);
+		crash(journal);
+
+		journal = start(3);
+		ProductActivity activity = journal.getActivity(PRODUCT);
+		assertEquals(3, activity.getBidCount());
+		assertEquals("bobby@x.io", activity.getLeader().getBuyerEmail());
+		assertEquals(START.plusSeconds(3), activity.getLastBidTime());
+		verify(bidRepo, never()).findBidActivity();
+	}
+
+	@Test
+	void longMultibyteEmailIsJournaled() throws IOException {
+		String email = "é".repeat(600) + "@x.io";
+		BidJournal journal = start(0);
+		Bid bid = bid(1, email, 10);
+		journal.append(List.of(bid), bid);
+		Bid next = bid(2, "alice@x.io", 11);
+		journal.append(List.of(next), next);
+		crash(journal);
+
+		journal = start(2);
+		assertEquals(2, journal.getActivity(PRODUCT).getBidCount());
+		verify(bidRepo, never()).findBidActivity();
+	}
+
+	private BidJournal start(int tableMaxId) throws IOException {
+		when(bidRepo.findMaxId()).thenReturn(tableMaxId);
+		BidJournal journal = new BidJournal();
+		ReflectionTestUtils.setField(journal, "bidRepo", bidRepo);
+		ReflectionTestUtils.setField(journal, "enabled", true);
+		ReflectionTestUtils.setField(journal, "dir", dir);
+		ReflectionTestUtils.setField(journal, "segmentSize", "64KB");
+		ReflectionTestUtils.setField(journal, "snapshotEvery", 1_000_000L);
+		ReflectionTestUtils.setField(journal, "snapshotIntervalMs", 3_600_000L);
+		journal.start();
+		return journal;
+	}
+
+	private static void crash(BidJournal journal) throws IOException {
+		JournalSegment active = (JournalSegment) ReflectionTestUtils.getField(journal, "active");
+		active.force();
+		active.close();
+	}
+
+	private Path segment() throws IOException {
+		try (Stream<Path> files = Files.list(dir)) {
+			return files.filter(p -> p.getFileName().toString().endsWith(".log")).findFirst().orElseThrow();
+		}
+	}
+
+	private static Bid bid(int id, String buyer, double amount) {
+		Bid bid = new Bid();
+		bid.setId(id);
+		bid.setProductId(PRODUCT);
+		bid.setBuyerEmail(buyer);
+		bid.setBidAmount(amount);
+		bid.setBidTime(START.plusSeconds(id));
+		return bid;
+	}
+}
@@ -0,0 +1,208 @@
+package klu.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertSame;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.CompletableFuture;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import klu.repo.WalletRepository;
+
+// BidManager with the real bid book, sequencer and wallet ledger; the group commit is replaced by
+// futures the test completes, so each write's outcome is decided by hand (or, with autoCommit,
+// writes commit at once)
+class BidManagerTest {
+
+	private static final int PRODUCT = 7;
+
+	private BidManager bidManager;
+	private BidBook bidBook;
+	private WalletManager walletManager;
+	private final List<CompletableFuture<Void>> writes = new ArrayList<>();
+	private boolean autoCommit;
+
+	@BeforeEach
+	void setUp() {
+		WalletRepository walletRepo = mock(WalletRepository.class);
+		when(walletRepo.findById(anyString())).thenAnswer(call -> Optional.of(wallet(call.getArgument(0), 100)));
+
+		Product product = new Product();
+		product.setId(PRODUCT);
+		product.setName("Lamp");
+		product.setPrice(5);
+		product.setExpiryDate(LocalDate.now().plusDays(7));
+		ProductManager productManager = mock(ProductManager.class);
+		when(productManager.getProductById(PRODUCT)).thenReturn(product);
+
+		BidWriter bidWriter = mock(BidWriter.class);
+		when(bidWriter.submit(any(), any(), any(), any())).thenAnswer(call -> {
+			CompletableFuture<Void> write = autoCommit ? CompletableFuture.completedFuture(null) : new CompletableFuture<>();
+			writes.add(write);
+			return write;
+		});
+		NotificationManager notificationManager = mock(NotificationManager.class);
+		when(notificationManager.buildEvent(anyString(), anyString(), anyInt(), anyString(), any(Double.class), any()))
+			.thenReturn(new NotificationEvent());
+
+		bidBook = new BidBook();
+		BidSequencer bidSequencer = new BidSequencer();
+		bidSequencer.init();
+		walletManager = new WalletManager();
+		ReflectionTestUtils.setField(walletManager, "WR", walletRepo);
+		ReflectionTestUtils.setField(walletManager, "bidBook", bidBook);
+
+		bidManager = new BidManager();
+		ReflectionTestUtils.setField(bidManager, "bidBook", bidBook);
+		ReflectionTestUtils.setField(bidManager, "bidSequencer", bidSequencer);
+		ReflectionTestUtils.setField(bidManager, "bidWriter", bidWriter);
+		ReflectionTestUtils.setField(bidManager, "walletManager", walletManager);
+		ReflectionTestUtils.setField(bidManager, "productManager", productManager);
+		ReflectionTestUtils.setField(bidManager, "notificationManager", notificationManager);
+		ReflectionTestUtils.setField(bidManager, "bidStream", mock(BidStream.class));
+		ReflectionTestUtils.setField(bidManager, "increment", 1.0);
+		ReflectionTestUtils.setField(bidManager, "commitTimeoutMs", 20L);
+	}
+
+	@Test
+	void failedBatchWithSeveralBidsOnOneProductRestoresTheLastCommittedLeader() {
+		assertTrue(bidManager.placeBid(bid("alice", 10)).startsWith("202::"));
+		writes.get(0).complete(null);
+		Bid committed = bidBook.getLeader(PRODUCT);
+
+		bidManager.placeBid(bid("bob", 12));
+		bidManager.placeBid(bid("carol", 15));
+		bidManager.placeBid(bid("bob", 20));
+		assertEquals(20, bidBook.getLeader(PRODUCT).getBidAmount());
+
+		// One batch: the writes fail in the order they were queued
+		for (CompletableFuture<Void> write : writes.subList(1, 4)) {
+			write.completeExceptionally(new IllegalStateException("batch failed"));
+		}
+
+		assertSame(committed, bidBook.getLeader(PRODUCT));
+		assertEquals(90, walletManager.getAvailableBalance("alice"));
+		assertEquals(100, walletManager.getAvailableBalance("bob"));
+		assertEquals(100, walletManager.getAvailableBalance("carol"));
+	}
+
+	@Test
+	void laterWritesOnTheProductAreCancelledWhenAnEarlierOneFails() {
+		bidManager.placeBid(bid("alice", 10));
+		bidManager.placeBid(bid("bob", 12));
+
+		writes.get(0).completeExceptionally(new IllegalStateException("batch failed"));
+
+		assertTrue(writes.get(1).isCancelled());
+		assertEquals(null, bidBook.getLeader(PRODUCT));
+		assertEquals(100, walletManager.getAvailableBalance("alice"));
+		assertEquals(100, walletManager.getAvailableBalance("bob"));
+
+		// The product takes bids again from the restored state
+		bidManager.placeBid(bid("bob", 6));
+		writes.get(2).complete(null);
+		assertEquals(6, bidBook.getLeader(PRODUCT).getBidAmount());
+		assertEquals(94, walletManager.getAvailableBalance("bob"));
+	}
+
+	@Test
+	void proxyBidsOneIncrementOverAManualBid() {
+		autoCommit = true;
+		assertEquals("200::Automatic bid set up to $30.00", bidManager.placeProxyBid(proxy("alice", 30)));
+		assertEquals(5, bidBook.getLeader(PRODUCT).getBidAmount());
+
+		assertEquals("200::Bid placed, but you were outbid by an automatic bid", bidManager.placeBid(bid("bob", 10)));
+		assertLeader("alice", 11);
+		assertEquals(89, walletManager.getAvailableBalance("alice"));
+		assertEquals(100, walletManager.getAvailableBalance("bob"));
+	}
+
+	@Test
+	void higherProxyWinsOneIncrementOverTheOtherProxysMaximum() {
+		autoCommit = true;
+		bidManager.placeProxyBid(proxy("alice", 30));
+
+		assertEquals("200::Automatic bid set up to $50.00", bidManager.placeProxyBid(proxy("bob", 50)));
+		assertLeader("bob", 31);
+		assertEquals(List.of("bob"), List.copyOf(bidBook.getProxies(PRODUCT).keySet()));
+		assertEquals(100, walletManager.getAvailableBalance("alice"));
+	}
+
+	@Test
+	void tiesGoToTheEarlierBidder() {
+		autoCommit = true;
+		bidManager.placeProxyBid(proxy("alice", 30));
+
+		assertEquals("200::Automatic bid was outbid at $30.00", bidManager.placeProxyBid(proxy("bob", 30)));
+		assertLeader("alice", 30);
+		assertEquals("400::Bid must be higher than the current highest bid", bidManager.placeBid(bid("carol", 30)));
+		assertLeader("alice", 30);
+	}
+
+	@Test
+	void manualBidAboveAProxysMaximumTakesTheLeadAtItsOwnAmount() {
+		autoCommit = true;
+		bidManager.placeProxyBid(proxy("alice", 30));
+
+		assertEquals("200::Bid Placed Successfully", bidManager.placeBid(bid("bob", 35)));
+		assertLeader("bob", 35);
+		assertTrue(bidBook.getProxies(PRODUCT).isEmpty());
+		// No empty proxy map is left behind for the product
+		assertTrue(((Map<?, ?>) ReflectionTestUtils.getField(bidBook, "proxies")).isEmpty());
+		assertEquals(100, walletManager.getAvailableBalance("alice"));
+		assertEquals(65, walletManager.getAvailableBalance("bob"));
+	}
+
+	@Test
+	void openingBidsBelowTheStartingPriceAreRejectedLikeProxies() {
+		autoCommit = true;
+		assertEquals("400::Bid must be at least the starting price", bidManager.placeBid(bid("alice", 4)));
+		assertEquals("400::Maximum bid must be higher than the current highest bid",
+			bidManager.placeProxyBid(proxy("alice", 4)));
+		assertEquals(null, bidBook.getLeader(PRODUCT));
+
+		assertEquals("200::Bid Placed Successfully", bidManager.placeBid(bid("alice", 5)));
+		assertLeader("alice", 5);
+	}
+
+	private void assertLeader(String buyer, double amount) {
+		Bid leader = bidBook.getLeader(PRODUCT);
+		assertEquals(buyer + " " + amount, leader.getBuyerEmail() + " " + leader.getBidAmount());
+	}
+
+	private static ProxyBid proxy(String buyer, double maxAmount) {
+		ProxyBid proxy = new ProxyBid();
+		proxy.setProductId(PRODUCT);
+		proxy.setBuyerEmail(buyer);
+		proxy.setMaxAmount(maxAmount);
+		return proxy;
+	}
+
+	private static Bid bid(String buyer, double amount) {
+		Bid bid = new Bid();
+		bid.setProductId(PRODUCT);
+		bid.setBuyerEmail(buyer);
+		bid.setBidAmount(amount);
+		return bid;
+	}
+
+	private static Wallet wallet(String email, double balance) {
+		Wallet wallet = new Wallet();
+		wallet.setEmail(email);
+		wallet.setBalance(balance);
+		return wallet;
+	}
+}
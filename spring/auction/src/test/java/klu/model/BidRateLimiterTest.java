@@ -0,0 +1,75 @@
+package klu.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.concurrent.TimeUnit;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+class BidRateLimiterTest {
+
+	@Test
+	void aBurstIsAllowedAndTheNextBidWaitsForOneRefill() {
+		BidRateLimiter limiter = limiter(true, 10, 5);
+
+		for (int i = 0; i < 10; i++) {
+			assertEquals(0, limiter.tryAcquire("alice@x.io"), "bid " + i);
+		}
+		long wait = limiter.tryAcquire("alice@x.io");
+		assertTrue(wait > 0 && wait <= TimeUnit.MILLISECONDS.toNanos(200), "wait " + wait);
+	}
+
+	@Test
+	void buyersHaveTheirOwnBuckets() {
+		BidRateLimiter limiter = limiter(true, 1, 1);
+
+		assertEquals(0, limiter.tryAcquire("alice@x.io"));
+		assertTrue(limiter.tryAcquire("alice@x.io") > 0);
+		assertEquals(0, limiter.tryAcquire("bob@x.io"));
+	}
+
+	@Test
+	void tokensComeBackAtTheRefillRate() throws InterruptedException {
+		BidRateLimiter limiter = limiter(true, 1, 100);
+
+		assertEquals(0, limiter.tryAcquire("alice@x.io"));
+		assertTrue(limiter.tryAcquire("alice@x.io") > 0);
+		Thread.sleep(20);
+		assertEquals(0, limiter.tryAcquire("alice@x.io"));
+	}
+
+	@Test
+	void disabledLimiterAllowsEverything() {
+		BidRateLimiter limiter = limiter(false, 1, 1);
+
+		for (int i = 0; i < 100; i++) {
+			assertEquals(0, limiter.tryAcquire("alice@x.io"));
+		}
+		assertEquals(0, limiter.getTrackedBuyers());
+	}
+
+	@Test
+	void refilledBucketsAreEvicted() throws InterruptedException {
+		BidRateLimiter limiter = limiter(true, 1, 1);
+		limiter.tryAcquire("alice@x.io");
+		limiter.evictIdleBuckets();
+		assertEquals(1, limiter.getTrackedBuyers());
+
+		limiter = limiter(true, 1, 200);
+		limiter.tryAcquire("alice@x.io");
+		Thread.sleep(20);
+		limiter.evictIdleBuckets();
+		assertEquals(0, limiter.getTrackedBuyers());
+	}
+
+	private static BidRateLimiter limiter(boolean enabled, int burst, double refillPerSecond) {
+		BidRateLimiter limiter = new BidRateLimiter();
+		ReflectionTestUtils.setField(limiter, "enabled", enabled);
+		ReflectionTestUtils.setField(limiter, "burst", burst);
+		ReflectionTestUtils.setField(limiter, "refillPerSecond", refillPerSecond);
+		limiter.init();
+		return limiter;
+	}
+}
@@ -0,0 +1,40 @@
+package klu.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.web.servlet.mvc.method.annotation.SseEmitter;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.fasterxml.jackson.datatype.jsr310.JavaTimeModule;
+
+class BidStreamTest {
+
+	@Test
+	void subscribersTheDeliveryPoolRejectsAreDisconnected() {
+		BidStream stream = new BidStream();
+		ReflectionTestUtils.setField(stream, "objectMapper", new ObjectMapper().registerModule(new JavaTimeModule()));
+		ReflectionTestUtils.setField(stream, "bufferSize", 32);
+		ReflectionTestUtils.setField(stream, "streamTimeoutMs", 60_000L);
+		ReflectionTestUtils.setField(stream, "sendTimeoutMs", 5_000L);
+		ReflectionTestUtils.setField(stream, "maxThreads", 4);
+		stream.start();
+		SseEmitter emitter = stream.subscribe(7, null);
+
+		// A shut-down pool rejects every task, as a saturated one does
+		((ThreadPoolExecutor) ReflectionTestUtils.getField(stream, "deliveryPool")).shutdownNow();
+		Bid bid = new Bid();
+		bid.setProductId(7);
+		bid.setBuyerEmail("alice@x.io");
+		bid.setBidAmount(10);
+		stream.publishBid(bid, true);
+
+		assertEquals(0, stream.getSubscriberCount());
+		// Completed emitters refuse further sends; the client sees the stream end and reconnects
+		assertThrows(IllegalStateException.class, () -> emitter.send("ping"));
+	}
+}
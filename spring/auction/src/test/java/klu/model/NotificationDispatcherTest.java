@@ -0,0 +1,161 @@
+package klu.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.ArgumentMatchers.eq;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDateTime;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import klu.repo.NotificationRepository;
+
+// Batches are handed to dispatch() directly, without the dispatcher thread; the outbox claim
+// finds every event still present unless its id is in alreadyDelivered
+class NotificationDispatcherTest {
+
+	private static final int PRODUCT = 7;
+
+	private NotificationDispatcher dispatcher;
+	private NotificationRepository notificationRepo;
+	private UnreadCounters unreadCounters;
+	private final List<Notification> saved = new ArrayList<>();
+	private final Set<Integer> alreadyDelivered = new HashSet<>();
+	private int nextEventId = 1;
+
+	@BeforeEach
+	@SuppressWarnings("unchecked")
+	void setUp() {
+		JdbcTemplate jdbc = mock(JdbcTemplate.class);
+		when(jdbc.queryForList(anyString(), eq(Integer.class), any(Object[].class))).thenAnswer(call ->
+			Arrays.stream(call.getArguments()).skip(2).map(Integer.class::cast)
+				.filter(id -> !alreadyDelivered.contains(id)).toList());
+		notificationRepo = mock(NotificationRepository.class);
+		when(notificationRepo.saveAll(any())).thenAnswer(call -> {
+			for (Notification notification : (Iterable<Notification>) call.getArgument(0)) {
+				notification.setId(saved.size() + 1);
+				saved.add(notification);
+			}
+			return call.getArgument(0);
+		});
+		unreadCounters = mock(UnreadCounters.class);
+
+		dispatcher = new NotificationDispatcher();
+		ReflectionTestUtils.setField(dispatcher, "notificationRepo", notificationRepo);
+		ReflectionTestUtils.setField(dispatcher, "notificationManager", new NotificationManager());
+		ReflectionTestUtils.setField(dispatcher, "unreadCounters", unreadCounters);
+		ReflectionTestUtils.setField(dispatcher, "jdbc", jdbc);
+		ReflectionTestUtils.setField(dispatcher, "transactionTemplate",
+			new TransactionTemplate(mock(PlatformTransactionManager.class)));
+		ReflectionTestUtils.setField(dispatcher, "coalesceWindowMs", 60_000L);
+		ReflectionTestUtils.setField(dispatcher, "coalesceTypes", Set.of("OUTBID"));
+	}
+
+	@Test
+	void repeatedOutbidEventsInOneBatchBecomeOneNotification() {
+		dispatch(event("alice", "OUTBID", 10), event("alice", "OUTBID", 12), event("alice", "WINNING_BID", 12),
+			event("alice", "OUTBID", 15), event("bob", "OUTBID", 15));
+
+		assertEquals(List.of("alice OUTBID 15.00", "alice WINNING_BID 12.00", "bob OUTBID 15.00"), summaries());
+		verify(unreadCounters, times(2)).add("alice", 1);
+		verify(unreadCounters).add("bob", 1);
+	}
+
+	@Test
+	void laterBatchesRewriteTheUnreadNotificationWithinTheWindow() {
+		dispatch(event("alice", "OUTBID", 10));
+		when(notificationRepo.coalesce(eq(1), anyString(), any())).thenReturn(1);
+
+		dispatch(event("alice", "OUTBID", 12));
+
+		verify(notificationRepo).coalesce(eq(1), eq(message(12)), any());
+		assertEquals(1, saved.size());
+		verify(unreadCounters, times(1)).add("alice", 1);
+	}
+
+	@Test
+	void aNotificationAlreadyReadIsNotRewritten() {
+		dispatch(event("alice", "OUTBID", 10));
+		when(notificationRepo.coalesce(eq(1), anyString(), any())).thenReturn(0);
+
+		dispatch(event("alice", "OUTBID", 12));
+
+		assertEquals(List.of("alice OUTBID 10.00", "alice OUTBID 12.00"), summaries());
+		verify(unreadCounters, times(2)).add("alice", 1);
+	}
+
+	@Test
+	void eventsAfterTheWindowAddANotification() throws InterruptedException {
+		ReflectionTestUtils.setField(dispatcher, "coalesceWindowMs", 20L);
+		dispatch(event("alice", "OUTBID", 10));
+		Thread.sleep(40);
+
+		dispatch(event("alice", "OUTBID", 12));
+
+		verify(notificationRepo, never()).coalesce(anyInt(), anyString(), any());
+		assertEquals(2, saved.size());
+	}
+
+	@Test
+	void aZeroWindowTurnsCoalescingOff() {
+		ReflectionTestUtils.setField(dispatcher, "coalesceWindowMs", 0L);
+
+		dispatch(event("alice", "OUTBID", 10), event("alice", "OUTBID", 12));
+
+		assertEquals(List.of("alice OUTBID 10.00", "alice OUTBID 12.00"), summaries());
+	}
+
+	@Test
+	void eventsAlreadyDeliveredAreSkipped() {
+		NotificationEvent delivered = event("alice", "OUTBID", 12);
+		alreadyDelivered.add(delivered.getId());
+
+		dispatch(event("alice", "OUTBID", 10), delivered);
+
+		assertEquals(List.of("alice OUTBID 10.00"), summaries());
+	}
+
+	private void dispatch(NotificationEvent... events) {
+		assertEquals(true, ReflectionTestUtils.invokeMethod(dispatcher, "dispatch", Arrays.asList(events)));
+	}
+
+	private List<String> summaries() {
+		return saved.stream()
+			.map(n -> n.getUserEmail() + " " + n.getType() + " " + n.getMessage().replaceAll(".*\\$", ""))
+			.sorted()
+			.toList();
+	}
+
+	private static String message(double amount) {
+		return "You've been outbid on 'Lamp'. Current highest bid: $" + String.format("%.2f", amount);
+	}
+
+	private NotificationEvent event(String user, String type, double amount) {
+		NotificationEvent event = new NotificationEvent();
+		event.setId(nextEventId++);
+		event.setUserEmail(user);
+		event.setType(type);
+		event.setProductId(PRODUCT);
+		event.setProductName("Lamp");
+		event.setAmount(amount);
+		event.setCreatedAt(LocalDateTime.now());
+		return event;
+	}
+}
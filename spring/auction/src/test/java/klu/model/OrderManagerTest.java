@@ -0,0 +1,117 @@
+package klu.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyString;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.never;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.Set;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import klu.repo.OrderRepository;
+import klu.repo.WalletRepository;
+
+// Alice has 100 in her wallet and leads product 7 at 90
+class OrderManagerTest {
+
+	private static final int PRODUCT = 7;
+
+	private OrderManager orderManager;
+	private WalletManager walletManager;
+	private OrderRepository orderRepo;
+	private final Map<String, Wallet> wallets = new HashMap<>();
+
+	@BeforeEach
+	void setUp() {
+		wallets.put("alice", wallet("alice", 100));
+		WalletRepository walletRepo = mock(WalletRepository.class);
+		when(walletRepo.findAll()).thenAnswer(call -> List.copyOf(wallets.values()));
+		when(walletRepo.findById(anyString())).thenAnswer(call -> Optional.ofNullable(wallets.get(call.getArgument(0))));
+		when(walletRepo.save(any())).thenAnswer(call -> call.getArgument(0));
+		orderRepo = mock(OrderRepository.class);
+		when(orderRepo.findOrderedProductIds()).thenReturn(Set.of());
+
+		BidBook bidBook = new BidBook();
+		Bid leader = new Bid();
+		leader.setProductId(PRODUCT);
+		leader.setBuyerEmail("alice");
+		leader.setBidAmount(90);
+		bidBook.setLeader(leader);
+
+		walletManager = new WalletManager();
+		ReflectionTestUtils.setField(walletManager, "WR", walletRepo);
+		ReflectionTestUtils.setField(walletManager, "bidBook", bidBook);
+		ReflectionTestUtils.setField(walletManager, "orderRepo", orderRepo);
+		walletManager.rebuildLedger();
+
+		orderManager = new OrderManager();
+		ReflectionTestUtils.setField(orderManager, "OR", orderRepo);
+		ReflectionTestUtils.setField(orderManager, "WM", walletManager);
+	}
+
+	@Test
+	void theWinningBidsHoldPaysForTheOrder() {
+		assertEquals(10, walletManager.getAvailableBalance("alice"));
+
+		assertEquals("200::Order placed successfully", orderManager.placeOrder(order(90)));
+
+		assertEquals(10, wallets.get("alice").getBalance());
+		assertEquals(10, walletManager.getAvailableBalance("alice"));
+		assertEquals(10, walletManager.getAvailableFor("alice", PRODUCT));
+	}
+
+	@Test
+	void aFailedDeductionKeepsTheHoldAndSavesNoOrder() {
+		assertEquals("403::Insufficient Balance", orderManager.placeOrder(order(120)));
+
+		verify(orderRepo, never()).save(any());
+		assertEquals(100, wallets.get("alice").getBalance());
+		assertEquals(10, walletManager.getAvailableBalance("alice"));
+		assertEquals(100, walletManager.getAvailableFor("alice", PRODUCT));
+	}
+
+	@Test
+	void aFailedOrderSaveRefundsAndKeepsTheHold() {
+		when(orderRepo.save(any())).thenThrow(new IllegalStateException("database down"));
+
+		assertThrows(IllegalStateException.class, () -> orderManager.placeOrder(order(90)));
+
+		assertEquals(100, wallets.get("alice").getBalance());
+		assertEquals(10, walletManager.getAvailableBalance("alice"));
+	}
+
+	@Test
+	void rebuildDoesNotHoldFundsForAuctionsAlreadyPaidFor() {
+		when(orderRepo.findOrderedProductIds()).thenReturn(Set.of(PRODUCT));
+
+		walletManager.rebuildLedger();
+
+		assertEquals(100, walletManager.getAvailableBalance("alice"));
+	}
+
+	private static Order order(double amount) {
+		Order order = new Order();
+		order.setBuyerEmail("alice");
+		order.setProductId(PRODUCT);
+		order.setAmount(amount);
+		return order;
+	}
+
+	private static Wallet wallet(String email, double balance) {
+		Wallet wallet = new Wallet();
+		wallet.setEmail(email);
+		wallet.setBalance(balance);
+		return wallet;
+	}
+}
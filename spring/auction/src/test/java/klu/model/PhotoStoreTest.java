@@ -0,0 +1,66 @@
+package klu.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertNotNull;
+import static org.junit.jupiter.api.Assertions.assertNull;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.MediaType;
+import org.springframework.test.util.ReflectionTestUtils;
+
+// UPLOAD_DIR is relative to the working directory, the module root under Maven, where pom.xml
+// sits right outside it
+class PhotoStoreTest {
+
+	private PhotoStore store;
+	private Path photo;
+
+	@BeforeEach
+	void setUp() throws IOException {
+		store = new PhotoStore();
+		ReflectionTestUtils.setField(store, "cacheSize", 100L);
+		store.init();
+		Files.createDirectories(PhotoStore.UPLOAD_DIR);
+		photo = Files.write(PhotoStore.UPLOAD_DIR.resolve("photo-store-test-" + System.nanoTime() + ".png"),
+			new byte[] { 1, 2, 3 });
+	}
+
+	@AfterEach
+	void tearDown() throws IOException {
+		Files.deleteIfExists(photo);
+	}
+
+	@Test
+	void uploadedPhotosAreFoundWithTheirMetadata() throws IOException {
+		PhotoStore.Photo found = store.find(photo.getFileName().toString());
+
+		assertNotNull(found);
+		assertEquals(3, found.size());
+		assertEquals(MediaType.IMAGE_PNG, found.mediaType());
+		assertEquals("\"3-" + Long.toHexString(found.lastModified()) + "\"", found.etag());
+		assertNotNull(store.find("sub/../" + photo.getFileName()));
+	}
+
+	@Test
+	void pathsOutsideTheUploadDirectoryAreRejected() throws IOException {
+		assertNotNull(Files.readAttributes(Path.of("pom.xml"), "size"));
+
+		assertNull(store.find("../pom.xml"));
+		assertNull(store.find("sub/../../pom.xml"));
+		assertNull(store.find(Path.of("pom.xml").toAbsolutePath().toString()));
+		assertNull(store.find("../uploads-other/x.png"));
+	}
+
+	@Test
+	void theUploadDirectoryItselfAndMissingFilesAreNotPhotos() throws IOException {
+		assertNull(store.find(""));
+		assertNull(store.find("."));
+		assertNull(store.find("missing-" + System.nanoTime() + ".png"));
+	}
+}
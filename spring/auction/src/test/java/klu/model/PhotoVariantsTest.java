@@ -0,0 +1,48 @@
+package klu.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+
+import java.awt.image.BufferedImage;
+
+import org.junit.jupiter.api.Test;
+
+class PhotoVariantsTest {
+
+	@Test
+	void eachVariantFitsItsLongestSideAndKeepsTheAspectRatio() {
+		BufferedImage image = new BufferedImage(3000, 2000, BufferedImage.TYPE_INT_RGB);
+
+		image = PhotoVariants.scale(image, 1200);
+		assertSize(1200, 800, image);
+		image = PhotoVariants.scale(image, 480);
+		assertSize(480, 320, image);
+		image = PhotoVariants.scale(image, 160);
+		assertSize(160, 107, image);
+	}
+
+	@Test
+	void portraitPhotosAreBoundedByTheirHeight() {
+		assertSize(150, 1200, PhotoVariants.scale(new BufferedImage(500, 4000, BufferedImage.TYPE_INT_RGB), 1200));
+	}
+
+	@Test
+	void smallPhotosAreNotScaledUp() {
+		assertSize(100, 50, PhotoVariants.scale(new BufferedImage(100, 50, BufferedImage.TYPE_INT_RGB), 480));
+	}
+
+	@Test
+	void thinPhotosKeepAtLeastOnePixel() {
+		assertSize(1200, 1, PhotoVariants.scale(new BufferedImage(6000, 2, BufferedImage.TYPE_INT_RGB), 1200));
+	}
+
+	@Test
+	void transparentPixelsBecomeWhite() {
+		BufferedImage image = new BufferedImage(400, 400, BufferedImage.TYPE_INT_ARGB);
+
+		assertEquals(0xFFFFFF, PhotoVariants.scale(image, 160).getRGB(80, 80) & 0xFFFFFF);
+	}
+
+	private static void assertSize(int width, int height, BufferedImage image) {
+		assertEquals(width + "x" + height, image.getWidth() + "x" + image.getHeight());
+	}
+}
@@ -0,0 +1,121 @@
+package klu.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+import static org.mockito.ArgumentMatchers.any;
+import static org.mockito.ArgumentMatchers.anyInt;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.when;
+
+import java.time.LocalDate;
+import java.util.List;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import klu.repo.ProductRepository;
+
+class ProductSearchIndexTest {
+
+	private ProductSearchIndex index;
+
+	@BeforeEach
+	void setUp() {
+		index = new ProductSearchIndex();
+	}
+
+	@Test
+	void tokensAreLowerCasedWithoutAccentsOrStopWords() {
+		assertEquals(List.of("cafe", "table", "1960s"), ProductSearchIndex.tokenize("The Café-Table of 1960s!"));
+		assertEquals(List.of(), ProductSearchIndex.tokenize("  "));
+	}
+
+	@Test
+	void editDistanceIsBounded() {
+		assertTrue(ProductSearchIndex.withinEdits("lamp", "lamb", 1));
+		assertTrue(ProductSearchIndex.withinEdits("lamp", "lam", 1));
+		assertFalse(ProductSearchIndex.withinEdits("lamp", "lime", 1));
+		assertTrue(ProductSearchIndex.withinEdits("telescope", "telscopes", 2));
+	}
+
+	@Test
+	void wordsMatchAsPrefixesAndAccentsAreIgnored() {
+		index.index(product(1, "Brass telescope", "Collectibles", "Ship's telescope"));
+		index.index(product(2, "Café chair", "Furniture", "Bistro chair"));
+
+		assertEquals(List.of(1), ids(index.search("teles", null, false, 10)));
+		assertEquals(List.of(2), ids(index.search("CAFE", null, false, 10)));
+		assertEquals(List.of(), ids(index.search("t", null, false, 10)));
+	}
+
+	@Test
+	void misspelledWordsFallBackToCloseTerms() {
+		index.index(product(1, "Brass telescope", "Collectibles", null));
+		index.index(product(2, "Oak table", "Furniture", null));
+
+		assertEquals(List.of(1), ids(index.search("telescpoe", null, false, 10)));
+		assertEquals(List.of(2), ids(index.search("tible", null, false, 10)));
+		assertEquals(List.of(), ids(index.search("zzzzzz", null, false, 10)));
+	}
+
+	@Test
+	void nameMatchesRankAboveDescriptionMatches() {
+		index.index(product(1, "Vintage radio", "Electronics", "Works with any lamp"));
+		index.index(product(2, "Desk lamp", "Furniture", "Brass desk lamp"));
+		index.index(product(3, "Lamp", "Furniture", null));
+
+		List<Integer> ranked = ids(index.search("lamp", null, false, 10));
+		assertEquals(1, ranked.get(ranked.size() - 1));
+		assertEquals(3, ranked.size());
+		assertEquals(List.of(2, 3), ids(index.search("lamp", "Furniture", false, 10)).stream().sorted().toList());
+		assertEquals(1, index.search("lamp", null, false, 1).size());
+	}
+
+	@Test
+	void expiredProductsAreLeftOutOfActiveSearches() {
+		Product expired = product(1, "Old lamp", "Furniture", null);
+		expired.setExpiryDate(LocalDate.now().minusDays(1));
+		index.index(expired);
+		index.index(product(2, "New lamp", "Furniture", null));
+
+		assertEquals(List.of(2), ids(index.search("lamp", null, true, 10)));
+	}
+
+	@Test
+	void loadSkipsProductsWrittenWhileItRuns() {
+		ProductRepository repo = mock(ProductRepository.class);
+		ReflectionTestUtils.setField(index, "productRepository", repo);
+		when(repo.findByIdGreaterThanOrderByIdAsc(anyInt(), any())).thenAnswer(call -> {
+			// Read before these writes committed: product 1 is deleted and product 2 renamed meanwhile
+			List<Product> stale = List.of(product(1, "Deleted lamp", "Furniture", null),
+				product(2, "Old name", "Furniture", null), product(3, "Kept lamp", "Furniture", null));
+			index.remove(1);
+			index.update(product(2, "Renamed lamp", "Furniture", null));
+			return stale;
+		});
+
+		index.load();
+
+		assertEquals(List.of(2, 3), ids(index.search("lamp", null, false, 10)).stream().sorted().toList());
+		assertEquals(List.of(), ids(index.search("old", null, false, 10)));
+		assertEquals(2, index.size());
+	}
+
+	private static List<Integer> ids(List<ProductSummary> results) {
+		return results.stream().map(ProductSummary::getId).toList();
+	}
+
+	private static Product product(int id, String name, String category, String description) {
+		Product product = new Product();
+		product.setId(id);
+		product.setName(name);
+		product.setCategory(category);
+		product.setDescription(description);
+		product.setPrice(10);
+		product.setQuantity(1);
+		product.setExpiryDate(LocalDate.now().plusDays(7));
+		return product;
+	}
+}
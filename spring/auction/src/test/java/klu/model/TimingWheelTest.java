@@ -0,0 +1,104 @@
+package klu.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertFalse;
+import static org.junit.jupiter.api.Assertions.assertTrue;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.IntStream;
+
+import org.junit.jupiter.api.Test;
+
+// One-second ticks on an eight-bucket wheel, starting at time 0
+class TimingWheelTest {
+
+	private final TimingWheel wheel = new TimingWheel(1000, 8, 0);
+
+	@Test
+	void entriesFireOnTheTickOfTheirDeadline() {
+		wheel.schedule(1, 5000);
+		wheel.schedule(2, 3500);
+
+		assertEquals(List.of(), advance(2999));
+		assertEquals(List.of(2), advance(3000));
+		assertEquals(List.of(), advance(4999));
+		assertEquals(List.of(1), advance(5000));
+		assertEquals(0, wheel.size());
+	}
+
+	@Test
+	void overdueEntriesFireOnTheNextTick() {
+		wheel.schedule(1, 0);
+
+		assertEquals(List.of(), advance(999));
+		assertEquals(List.of(1), advance(1000));
+	}
+
+	@Test
+	void cancelledEntriesDoNotFire() {
+		wheel.schedule(1, 2000);
+		wheel.schedule(2, 2000);
+
+		assertTrue(wheel.cancel(1));
+		assertFalse(wheel.cancel(1));
+		assertFalse(wheel.cancel(3));
+		assertEquals(1, wheel.size());
+		assertEquals(List.of(2), advance(2000));
+	}
+
+	@Test
+	void schedulingAgainMovesTheDeadline() {
+		wheel.schedule(1, 3000);
+		wheel.schedule(1, 6000);
+
+		assertEquals(1, wheel.size());
+		assertEquals(List.of(), advance(5000));
+		assertEquals(List.of(1), advance(6000));
+	}
+
+	@Test
+	void entriesMoreThanOneRevolutionAheadWaitForTheirOwnTurn() {
+		// Ticks 2, 10 and 18 share a bucket
+		wheel.schedule(1, 2000);
+		wheel.schedule(2, 10_000);
+		wheel.schedule(3, 18_000);
+
+		assertEquals(List.of(1), advance(2000));
+		assertEquals(List.of(), advance(9999));
+		assertEquals(List.of(2), advance(10_000));
+		assertEquals(List.of(3), advance(18_000));
+	}
+
+	@Test
+	void aLongPauseFiresEverythingDue() {
+		wheel.schedule(1, 1000);
+		wheel.schedule(2, 7000);
+		wheel.schedule(3, 30_000);
+		wheel.schedule(4, 90_000);
+
+		assertEquals(List.of(1, 2, 3), advance(60_000).stream().sorted().toList());
+		assertEquals(List.of(4), advance(90_000));
+	}
+
+	@Test
+	void manyEntriesSurviveGrowthAndCancellation() {
+		for (int id = 0; id < 5000; id++) {
+			wheel.schedule(id, 1000 + id % 20 * 1000);
+		}
+		for (int id = 0; id < 5000; id += 2) {
+			assertTrue(wheel.cancel(id));
+		}
+
+		assertEquals(2500, wheel.size());
+		assertEquals(IntStream.range(0, 5000).filter(id -> id % 2 == 1).boxed().toList(),
+			advance(20_000).stream().sorted().toList());
+		assertEquals(0, wheel.size());
+	}
+
+	private List<Integer> advance(long nowMs) {
+		List<Integer> fired = new ArrayList<>();
+		wheel.advance(nowMs, fired::add);
+		return fired;
+	}
+}
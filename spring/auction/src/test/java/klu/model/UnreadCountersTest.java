@@ -0,0 +1,71 @@
+package klu.model;
+
+import static org.junit.jupiter.api.Assertions.assertEquals;
+import static org.junit.jupiter.api.Assertions.assertThrows;
+import static org.mockito.Mockito.mock;
+import static org.mockito.Mockito.times;
+import static org.mockito.Mockito.verify;
+import static org.mockito.Mockito.when;
+
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import klu.repo.NotificationRepository;
+
+class UnreadCountersTest {
+
+	private UnreadCounters counters;
+	private NotificationRepository repo;
+
+	@BeforeEach
+	void setUp() {
+		repo = mock(NotificationRepository.class);
+		counters = new UnreadCounters();
+		ReflectionTestUtils.setField(counters, "notificationRepository", repo);
+		ReflectionTestUtils.setField(counters, "idleMs", 600_000L);
+		ReflectionTestUtils.setField(counters, "maxAgeMs", 300_000L);
+	}
+
+	@Test
+	void changesCommittedWhileTheCountLoadsAreKept() {
+		when(repo.countByUserEmailAndReadFalse("alice")).thenAnswer(call -> {
+			// A notification is delivered after the count read the table
+			counters.add("alice", 1);
+			return 3L;
+		});
+
+		assertEquals(4, counters.get("alice"));
+		counters.add("alice", -2);
+		assertEquals(2, counters.get("alice"));
+		verify(repo, times(1)).countByUserEmailAndReadFalse("alice");
+	}
+
+	@Test
+	void changesForUsersWithoutACounterAreLeftToTheirFirstLookup() {
+		counters.add("alice", 5);
+		when(repo.countByUserEmailAndReadFalse("alice")).thenReturn(1L);
+
+		assertEquals(1, counters.get("alice"));
+	}
+
+	@Test
+	void oldCountersAreRecounted() {
+		ReflectionTestUtils.setField(counters, "maxAgeMs", 0L);
+		when(repo.countByUserEmailAndReadFalse("alice")).thenReturn(3L, 1L);
+
+		assertEquals(3, counters.get("alice"));
+		counters.add("alice", 1);
+		assertEquals(1, counters.get("alice"));
+	}
+
+	@Test
+	void aFailedCountLeavesNoCounterBehind() {
+		when(repo.countByUserEmailAndReadFalse("alice"))
+			.thenThrow(new IllegalStateException("database down"))
+			.thenReturn(2L);
+
+		assertThrows(IllegalStateException.class, () -> counters.get("alice"));
+		assertEquals(2, counters.get("alice"));
+	}
+}